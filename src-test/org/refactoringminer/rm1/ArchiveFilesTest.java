@@ -0,0 +1,34 @@
+package org.refactoringminer.rm1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArchiveFilesTest {
+
+    @Test
+    public void testOnlyRequestedFilesAreRead() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("project-abc/"));
+            zip.putNextEntry(new ZipEntry("project-abc/src/"));
+            zip.putNextEntry(new ZipEntry("project-abc/src/A.java"));
+            zip.write("class A {}".getBytes(Charset.defaultCharset()));
+            zip.putNextEntry(new ZipEntry("project-abc/src/B.java"));
+            zip.write("class B {}".getBytes(Charset.defaultCharset()));
+            zip.putNextEntry(new ZipEntry("project-abc/README.md"));
+            zip.write("readme".getBytes(Charset.defaultCharset()));
+        }
+        Map<String, String> contents = GitHistoryRefactoringMinerImpl.readArchiveFiles(
+                new ByteArrayInputStream(bytes.toByteArray()), Arrays.asList("src/B.java", "src/C.java"));
+        Assert.assertEquals(1, contents.size());
+        Assert.assertEquals("class B {}", contents.get("src/B.java"));
+    }
+}
@@ -0,0 +1,50 @@
+package org.refactoringminer.rm1;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+
+public class FileCommitResultStoreTest {
+
+    @Test
+    public void testStoredCommitsAreFoundAfterReopening() throws Exception {
+        File file = File.createTempFile("results", ".jsonl");
+        file.delete();
+        try (FileCommitResultStore store = new FileCommitResultStore(file)) {
+            store.storeRefactorings("a", Collections.<Refactoring>emptyList());
+            store.storeError("b", new Exception("failure"));
+        }
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write("{\"commitId\":\"c\"".getBytes());
+        }
+        final List<String> replayed = new ArrayList<>();
+        try (FileCommitResultStore store = new FileCommitResultStore(file)) {
+            Assert.assertTrue(store.contains("a"));
+            Assert.assertTrue(store.contains("b"));
+            Assert.assertFalse(store.contains("c"));
+            store.replay(new RefactoringHandler() {
+                @Override
+                public void handle(String commitId, List<Refactoring> refactorings) {
+                    replayed.add(commitId);
+                }
+
+                @Override
+                public void handleException(String commitId, Exception e) {
+                    replayed.add(commitId + " " + e.getMessage());
+                }
+            });
+        } finally {
+            file.delete();
+        }
+        Assert.assertEquals(2, replayed.size());
+        Assert.assertEquals("a", replayed.get(0));
+        Assert.assertEquals("b java.lang.Exception: failure", replayed.get(1));
+    }
+}
@@ -0,0 +1,76 @@
+package org.refactoringminer.rm1;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+
+public class ParallelDetectionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFailingHandlerIsReportedWithoutStoppingTheRun() throws Exception {
+        try (Git git = Git.init().setDirectory(folder.getRoot()).call()) {
+            File file = new File(folder.getRoot(), "A.java");
+            Files.write(file.toPath(), "class A {\n}\n".getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern("A.java").call();
+            git.commit().setMessage("root").call();
+            Set<String> commitIds = new TreeSet<String>();
+            for (int i = 0; i < 6; i++) {
+                Files.write(file.toPath(), ("class A {\n\tint f" + i + "() {\n\t\treturn " + i + ";\n\t}\n}\n").getBytes(StandardCharsets.UTF_8));
+                git.add().addFilepattern("A.java").call();
+                RevCommit commit = git.commit().setMessage("commit " + i).call();
+                commitIds.add(commit.getName());
+            }
+            final String failingCommitId = commitIds.iterator().next();
+            final Set<String> handled = Collections.synchronizedSet(new TreeSet<String>());
+            final Set<String> failed = Collections.synchronizedSet(new TreeSet<String>());
+            final AtomicInteger finished = new AtomicInteger();
+            final AtomicInteger errorCommits = new AtomicInteger();
+
+            GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+            miner.setThreadCount(2);
+            miner.detectAllRefs(git.getRepository(), Collections.singletonList(git.getRepository().getBranch()), new RefactoringHandler() {
+                @Override
+                public void handle(String commitId, List<Refactoring> refactorings) {
+                    if (commitId.equals(failingCommitId)) {
+                        throw new IllegalStateException("handler failure");
+                    }
+                    handled.add(commitId);
+                }
+
+                @Override
+                public void handleException(String commitId, Exception e) {
+                    failed.add(commitId);
+                }
+
+                @Override
+                public void onFinish(int refactoringsCount, int commitsCount, int errorCommitsCount) {
+                    finished.incrementAndGet();
+                    errorCommits.set(errorCommitsCount);
+                }
+            });
+            Assert.assertEquals(Collections.singleton(failingCommitId), failed);
+            Set<String> others = new TreeSet<String>(commitIds);
+            others.remove(failingCommitId);
+            Assert.assertEquals(others, handled);
+            Assert.assertEquals(1, finished.get());
+            Assert.assertEquals(1, errorCommits.get());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.refactoringminer.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, String::length);
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        Assert.assertEquals("aaaa", cache.get("a"));
+        cache.put("c", "cccc");
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("aaaa", cache.get("a"));
+        Assert.assertEquals("cccc", cache.get("c"));
+        Assert.assertEquals(8, cache.getWeight());
+    }
+
+    @Test
+    public void testHitAndMissCounters() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, String::length);
+        cache.put("a", "aaaa");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testValueHeavierThanMaximumIsNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>(3, String::length);
+        cache.put("a", "aaaa");
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testTakenEntryIsRemovedUntilPutBack() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, String::length);
+        cache.put("a", "aaaa");
+        Assert.assertEquals("aaaa", cache.take("a"));
+        Assert.assertNull(cache.take("a"));
+        Assert.assertEquals(0, cache.getWeight());
+        cache.put("a", "aaaa");
+        Assert.assertEquals("aaaa", cache.get("a"));
+    }
+}
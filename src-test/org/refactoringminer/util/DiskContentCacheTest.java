@@ -0,0 +1,41 @@
+package org.refactoringminer.util;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiskContentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCachedContentsSurviveReopening() throws Exception {
+        File directory = folder.newFolder("cache");
+        DiskContentCache cache = new DiskContentCache(directory, 1024);
+        cache.put("raw:owner/repo:abc:A.java", "class A {}");
+        Assert.assertNull(cache.get("raw:owner/repo:abc:B.java"));
+
+        DiskContentCache reopened = new DiskContentCache(directory, 1024);
+        Assert.assertEquals(1, reopened.size());
+        Assert.assertEquals("class A {}", reopened.get("raw:owner/repo:abc:A.java"));
+        Assert.assertEquals(1, reopened.getHitCount());
+        Assert.assertEquals(0, reopened.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        DiskContentCache cache = new DiskContentCache(folder.newFolder("cache"), 25);
+        cache.put("a", "0123456789");
+        cache.put("b", "0123456789");
+        Assert.assertNotNull(cache.get("a"));
+        cache.put("c", "0123456789");
+        Assert.assertEquals(20, cache.getSize());
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("0123456789", cache.get("a"));
+        Assert.assertEquals("0123456789", cache.get("c"));
+    }
+}
@@ -0,0 +1,55 @@
+package org.refactoringminer.util;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DownloadExecutorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMoreDownloadsThanPendingLimit() throws Exception {
+        DownloadExecutor executor = new DownloadExecutor(2, 1, false);
+        try {
+            List<Future<String>> downloads = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                File file = folder.newFile("File" + i + ".java");
+                FileUtils.writeStringToFile(file, "class File" + i + " {}", Charset.defaultCharset());
+                downloads.add(executor.download(file.toURI().toURL()));
+            }
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals("class File" + i + " {}", downloads.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCachedDownloadDoesNotReadUrlAgain() throws Exception {
+        DownloadExecutor executor = new DownloadExecutor(2, 1, false);
+        DiskContentCache cache = new DiskContentCache(folder.newFolder("cache"), 1024);
+        try {
+            //a local file stands in for a raw file served by GitHub
+            File file = folder.newFile("A.java");
+            FileUtils.writeStringToFile(file, "class A {}", Charset.defaultCharset());
+            Assert.assertEquals("class A {}", executor.download(file.toURI().toURL(), cache, "raw:owner/repo:abc:A.java").get());
+            Assert.assertTrue(file.delete());
+            Assert.assertEquals("class A {}", executor.download(file.toURI().toURL(), cache, "raw:owner/repo:abc:A.java").get());
+            Assert.assertEquals(1, cache.getHitCount());
+            Assert.assertEquals(1, cache.getMissCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.refactoringminer.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FingerprintTest {
+
+    @Test
+    public void testAppendedStringsHashLikeTheirConcatenation() {
+        Fingerprint appended = Fingerprint.builder().append("int x = 0;").append("").append("return x;").build();
+        Assert.assertEquals(Fingerprint.of("int x = 0;return x;"), appended);
+        Assert.assertEquals(Fingerprint.of("int x = 0;return x;").hashCode(), appended.hashCode());
+        Assert.assertEquals(32, appended.toString().length());
+    }
+
+    @Test
+    public void testDistinctInputsHaveDistinctFingerprints() {
+        Set<Fingerprint> fingerprints = new HashSet<Fingerprint>();
+        fingerprints.add(Fingerprint.of(""));
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertTrue(fingerprints.add(Fingerprint.of("return " + i + ";")));
+        }
+        Assert.assertNotEquals(Fingerprint.of("ab"), Fingerprint.of("ba"));
+        Assert.assertNotEquals(Fingerprint.of("a"), Fingerprint.of("a\0"));
+    }
+}
@@ -0,0 +1,33 @@
+package org.refactoringminer.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JavaSourceNormalizerTest {
+
+    @Test
+    public void testCommentsAndWhitespaceIgnored() {
+        String before = "class A {\n    int f(int a) { return a+1; }\n}\n";
+        String after = "/** Doc */\nclass A {\n\n  // comment\n  int f(int a) {\n    return a + 1; /* one */\n  }\n}";
+        Assert.assertTrue(JavaSourceNormalizer.equivalent(before, after));
+    }
+
+    @Test
+    public void testTokenBoundariesAndLiteralsPreserved() {
+        Assert.assertFalse(JavaSourceNormalizer.equivalent("int a = b + +c;", "int a = b++c;"));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent("return x;", "returnx;"));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent("String s = \"a b\";", "String s = \"a  b\";"));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent("String s = \"// not a comment\";", "String s = \"\";"));
+    }
+
+    @Test
+    public void testTokensComparedWithoutTriviaAndImports() {
+        String before = "/* License */\npackage p;\nimport java.util.List;\nimport java.util.Map;\nclass A {\n    String f() { return \"a  b\"; }\n}\n";
+        String after = "/* Other license */\npackage p;\n\nimport java.util.*;\n\nclass A {\n  // comment\n  String f() {\n    return \"a  b\";\n  }\n}";
+        Assert.assertTrue(JavaSourceNormalizer.equivalent(before, after));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent(before, after.replace("package p;", "package q;")));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent(before, after.replace("\"a  b\"", "\"a b\"")));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent("int a = b + +c;", "int a = b++c;"));
+        Assert.assertFalse(JavaSourceNormalizer.equivalent("return x;", "returnx;"));
+    }
+}
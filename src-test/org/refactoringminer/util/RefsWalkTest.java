@@ -0,0 +1,47 @@
+package org.refactoringminer.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RefsWalkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSharedCommitsWalkedOnceWithTheirRefs() throws Exception {
+        try (Git git = Git.init().setDirectory(folder.getRoot()).call()) {
+            git.commit().setMessage("root").setAllowEmpty(true).call();
+            RevCommit shared = git.commit().setMessage("shared").setAllowEmpty(true).call();
+            String main = git.getRepository().getBranch();
+            git.branchCreate().setName("feature").call();
+            RevCommit onMain = git.commit().setMessage("main").setAllowEmpty(true).call();
+            git.checkout().setName("feature").call();
+            RevCommit onFeature = git.commit().setMessage("feature").setAllowEmpty(true).call();
+
+            Map<String, Set<String>> walkedRefs = new LinkedHashMap<String, Set<String>>();
+            GitServiceImpl gitService = new GitServiceImpl();
+            try (RefsWalk walk = gitService.createRefsWalk(git.getRepository(), Arrays.asList(main, "feature"))) {
+                while (walk.hasNext()) {
+                    RevCommit commit = walk.next();
+                    Assert.assertNull(walkedRefs.put(commit.getName(), walk.getRefs()));
+                }
+            }
+            //the root commit has no parent to be diffed against
+            Assert.assertEquals(3, walkedRefs.size());
+            Assert.assertEquals(new HashSet<String>(Arrays.asList(main)), walkedRefs.get(onMain.getName()));
+            Assert.assertEquals(new HashSet<String>(Arrays.asList("feature")), walkedRefs.get(onFeature.getName()));
+            Assert.assertEquals(new HashSet<String>(Arrays.asList(main, "feature")), walkedRefs.get(shared.getName()));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.refactoringminer.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WatchdogTest {
+
+    @Test
+    public void testThreadExceedingBudgetIsInterrupted() {
+        Watchdog watchdog = new Watchdog("test watchdog");
+        boolean interrupted = false;
+        try (Watchdog.Lease lease = watchdog.watch(50, TimeUnit.MILLISECONDS)) {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            Assert.assertTrue(lease.isExpired());
+        } finally {
+            watchdog.shutdown();
+        }
+        Assert.assertTrue(interrupted);
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testClosedLeaseDoesNotInterrupt() throws InterruptedException {
+        Watchdog watchdog = new Watchdog("test watchdog");
+        try (Watchdog.Lease lease = watchdog.watch(50, TimeUnit.MILLISECONDS)) {
+            Assert.assertFalse(lease.isExpired());
+        }
+        Thread.sleep(200);
+        watchdog.shutdown();
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+    }
+}
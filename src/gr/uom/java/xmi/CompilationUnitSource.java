@@ -0,0 +1,59 @@
+package gr.uom.java.xmi;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * The contents of a parsed Java source file, for the operation bodies built lazily from its compilation unit.
+ * The compilation unit is kept only while some bodies still need building, and is parsed again from the contents
+ * if it was released before.
+ */
+public class CompilationUnitSource {
+	private final String filePath;
+	private final String contents;
+	private CompilationUnit compilationUnit;
+	private int pendingBodies;
+
+	public CompilationUnitSource(String filePath, String contents, CompilationUnit compilationUnit) {
+		this.filePath = filePath;
+		this.contents = contents;
+		this.compilationUnit = compilationUnit;
+	}
+
+	public String getFilePath() {
+		return filePath;
+	}
+
+	public String getContents() {
+		return contents;
+	}
+
+	public synchronized void addPendingBody() {
+		pendingBodies++;
+	}
+
+	/**
+	 * @return The compilation unit of the file, parsed again if it was released.
+	 */
+	public synchronized CompilationUnit getCompilationUnit() {
+		if(compilationUnit == null) {
+			compilationUnit = UMLModelASTReader.parse(contents);
+		}
+		return compilationUnit;
+	}
+
+	/**
+	 * Releases the compilation unit once the last pending body is built.
+	 */
+	public synchronized void bodyBuilt() {
+		if(--pendingBodies == 0) {
+			compilationUnit = null;
+		}
+	}
+
+	/**
+	 * Releases the compilation unit, which is parsed again if a pending body is built later.
+	 */
+	public synchronized void releaseCompilationUnit() {
+		compilationUnit = null;
+	}
+}
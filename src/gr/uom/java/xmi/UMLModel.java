@@ -112,6 +112,9 @@ public class UMLModel {
     }
 
 	public UMLModelDiff diff(UMLModel umlModel, Map<String, String> renamedFileHints) throws RefactoringMinerTimedOutException {
+    	if(Thread.interrupted()) {
+    		throw new RefactoringMinerTimedOutException();
+    	}
     	UMLModelDiff modelDiff = new UMLModelDiff(this, umlModel);
     	for(UMLClass umlClass : classList) {
     		if(!umlModel.classList.contains(umlClass))
@@ -142,6 +145,9 @@ public class UMLModel {
     	}
     	modelDiff.checkForRealizationChanges();
     	for(UMLClass umlClass : classList) {
+    		if(Thread.interrupted()) {
+    			throw new RefactoringMinerTimedOutException();
+    		}
     		if(umlModel.classList.contains(umlClass)) {
     			UMLClassDiff classDiff = new UMLClassDiff(umlClass, umlModel.getClass(umlClass), modelDiff);
     			classDiff.process();
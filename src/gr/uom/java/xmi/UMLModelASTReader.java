@@ -6,6 +6,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -13,6 +14,8 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,6 +55,9 @@ import org.eclipse.jdt.core.dom.TypeParameter;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 
+import org.refactoringminer.api.RefactoringMinerInterruptedException;
+import org.refactoringminer.util.Fingerprint;
+
 import gr.uom.java.xmi.LocationInfo.CodeElementType;
 import gr.uom.java.xmi.decomposition.OperationBody;
 import gr.uom.java.xmi.decomposition.VariableDeclaration;
@@ -59,40 +65,143 @@ import gr.uom.java.xmi.decomposition.VariableDeclaration;
 public class UMLModelASTReader {
 	private static final String FREE_MARKER_GENERATED = "generated using freemarker";
 	private static final String systemFileSeparator = Matcher.quoteReplacement(File.separator);
+	private static final Map<String, String> COMPILER_OPTIONS = compilerOptions();
+	//bounds the compilation units parsed ahead of their processing
+	private static final int MAX_PENDING_PARSES = 4 * Runtime.getRuntime().availableProcessors();
 	private UMLModel umlModel;
+	private Map<String, UMLModelFragment> modelFragments = new LinkedHashMap<String, UMLModelFragment>();
+	private boolean lazyOperationBodies;
+	//the source of the file being processed, for its lazy operation bodies
+	private CompilationUnitSource compilationUnitSource;
 
 	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories) {
+		this(javaFileContents, repositoryDirectories, Collections.emptyMap());
+	}
+
+	/**
+	 * @param reusableFragments Model fragments previously extracted from identical versions of some of the files,
+	 *                          keyed by file path. These files are not parsed again.
+	 */
+	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories, Map<String, UMLModelFragment> reusableFragments) {
+		this(javaFileContents, repositoryDirectories, reusableFragments, null);
+	}
+
+	/**
+	 * @param parserExecutor The executor parsing the files concurrently, or null to parse them sequentially.
+	 *                       The files are still processed in order, so the model is the same in both cases.
+	 */
+	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories, Map<String, UMLModelFragment> reusableFragments,
+			ExecutorService parserExecutor) {
+		this(javaFileContents, repositoryDirectories, reusableFragments, parserExecutor, false);
+	}
+
+	/**
+	 * @param lazyOperationBodies Whether the statements of the operation bodies are built only when first used,
+	 *                            which skips them for the operations never compared. The bodies not built yet keep the AST of their file.
+	 */
+	public UMLModelASTReader(Map<String, String> javaFileContents, Set<String> repositoryDirectories, Map<String, UMLModelFragment> reusableFragments,
+			ExecutorService parserExecutor, boolean lazyOperationBodies) {
 		this.umlModel = new UMLModel(repositoryDirectories);
-		processJavaFileContents(javaFileContents);
+		this.lazyOperationBodies = lazyOperationBodies;
+		processJavaFileContents(javaFileContents, reusableFragments, parserExecutor);
 	}
 
-	private void processJavaFileContents(Map<String, String> javaFileContents) {
+	private static Map<String, String> compilerOptions() {
+		Map<String, String> options = JavaCore.getOptions();
+		options.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JavaCore.VERSION_1_8);
+		options.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_8);
+		options.put(JavaCore.COMPILER_COMPLIANCE, JavaCore.VERSION_1_8);
+		return Collections.unmodifiableMap(options);
+	}
+
+	static CompilationUnit parse(String javaFileContent) {
+		//a parser is reset after each createAST, so it is configured for each file
 		ASTParser parser = ASTParser.newParser(AST.JLS15);
+		parser.setCompilerOptions(COMPILER_OPTIONS);
+		parser.setResolveBindings(false);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setStatementsRecovery(true);
+		parser.setSource(javaFileContent.toCharArray());
+		return (CompilationUnit)parser.createAST(null);
+	}
+
+	private void processJavaFileContents(Map<String, String> javaFileContents, Map<String, UMLModelFragment> reusableFragments, ExecutorService parserExecutor) {
+		List<String> parsedFilePaths = new ArrayList<String>();
 		for(String filePath : javaFileContents.keySet()) {
-			Map<String, String> options = JavaCore.getOptions();
-			options.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JavaCore.VERSION_1_8);
-			options.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_8);
-			options.put(JavaCore.COMPILER_COMPLIANCE, JavaCore.VERSION_1_8);
-			parser.setCompilerOptions(options);
-			parser.setResolveBindings(false);
-			parser.setKind(ASTParser.K_COMPILATION_UNIT);
-			parser.setStatementsRecovery(true);
 			String javaFileContent = javaFileContents.get(filePath);
-			parser.setSource(javaFileContent.toCharArray());
-			if(javaFileContent.contains(FREE_MARKER_GENERATED) &&
-					!javaFileContent.contains("private static final String FREE_MARKER_GENERATED = \"generated using freemarker\";")) {
-				continue;
+			if(!reusableFragments.containsKey(filePath) && !isFreeMarkerGenerated(javaFileContent)) {
+				parsedFilePaths.add(filePath);
 			}
-			try {
-				CompilationUnit compilationUnit = (CompilationUnit)parser.createAST(null);
-				processCompilationUnit(filePath, compilationUnit, javaFileContent);
+		}
+		boolean concurrent = parserExecutor != null && parsedFilePaths.size() > 1;
+		List<Future<CompilationUnit>> compilationUnits = new ArrayList<Future<CompilationUnit>>();
+		int parsedFileCount = 0;
+		try {
+			for(String filePath : javaFileContents.keySet()) {
+				if(Thread.currentThread().isInterrupted()) {
+					//an incomplete model must not be returned
+					throw new RefactoringMinerInterruptedException();
+				}
+				UMLModelFragment reusableFragment = reusableFragments.get(filePath);
+				if(reusableFragment != null) {
+					reusableFragment.clearArgumentization();
+					reusableFragment.addTo(umlModel);
+					modelFragments.put(filePath, reusableFragment);
+					continue;
+				}
+				String javaFileContent = javaFileContents.get(filePath);
+				if(isFreeMarkerGenerated(javaFileContent)) {
+					continue;
+				}
+				try {
+					CompilationUnit compilationUnit;
+					if(concurrent) {
+						//the next files are parsed while the compilation units are processed in order
+						while(compilationUnits.size() < parsedFilePaths.size() && compilationUnits.size() < parsedFileCount + MAX_PENDING_PARSES) {
+							String parsedFileContent = javaFileContents.get(parsedFilePaths.get(compilationUnits.size()));
+							compilationUnits.add(parserExecutor.submit(() -> parse(parsedFileContent)));
+						}
+						Future<CompilationUnit> future = compilationUnits.set(parsedFileCount++, null);
+						compilationUnit = future.get();
+					}
+					else {
+						compilationUnit = parse(javaFileContent);
+					}
+					int classCount = umlModel.getClassList().size();
+					int generalizationCount = umlModel.getGeneralizationList().size();
+					int realizationCount = umlModel.getRealizationList().size();
+					compilationUnitSource = lazyOperationBodies ? new CompilationUnitSource(filePath, javaFileContent, compilationUnit) : null;
+					processCompilationUnit(filePath, compilationUnit, javaFileContent);
+					UMLModelFragment fragment = new UMLModelFragment(filePath, javaFileContent.length(),
+							umlModel.getClassList().subList(classCount, umlModel.getClassList().size()),
+							umlModel.getGeneralizationList().subList(generalizationCount, umlModel.getGeneralizationList().size()),
+							umlModel.getRealizationList().subList(realizationCount, umlModel.getRealizationList().size()),
+							compilationUnitSource);
+					modelFragments.put(filePath, fragment);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RefactoringMinerInterruptedException(e);
+				}
+				catch(Exception e) {
+					//e.printStackTrace();
+				}
 			}
-			catch(Exception e) {
-				//e.printStackTrace();
+		}
+		finally {
+			for(Future<CompilationUnit> future : compilationUnits) {
+				if(future != null) {
+					future.cancel(true);
+				}
 			}
 		}
 	}
 
+	private static boolean isFreeMarkerGenerated(String javaFileContent) {
+		return javaFileContent.contains(FREE_MARKER_GENERATED) &&
+				!javaFileContent.contains("private static final String FREE_MARKER_GENERATED = \"generated using freemarker\";");
+	}
+
 	public UMLModelASTReader(File rootFolder) throws IOException {
 		List<String> javaFilePaths = getJavaFilePaths(rootFolder);
 		Map<String, String> javaFileContents = new LinkedHashMap<String, String>();
@@ -108,7 +217,7 @@ public class UMLModelASTReader {
 			}
 		}
 		this.umlModel = new UMLModel(repositoryDirectories);
-		processJavaFileContents(javaFileContents);
+		processJavaFileContents(javaFileContents, Collections.emptyMap(), null);
 	}
 
 	private static List<String> getJavaFilePaths(File folder) throws IOException {
@@ -125,6 +234,13 @@ public class UMLModelASTReader {
 		return this.umlModel;
 	}
 
+	/**
+	 * @return The model fragment extracted from each processed file, keyed by file path.
+	 */
+	public Map<String, UMLModelFragment> getModelFragments() {
+		return modelFragments;
+	}
+
 	protected void processCompilationUnit(String sourceFilePath, CompilationUnit compilationUnit, String javaFileContent) {
 		List<UMLComment> comments = extractInternalComments(compilationUnit, sourceFilePath, javaFileContent);
 		PackageDeclaration packageDeclaration = compilationUnit.getPackage();
@@ -534,7 +650,15 @@ public class UMLModelASTReader {
 		
 		Block block = methodDeclaration.getBody();
 		if(block != null) {
-			OperationBody body = new OperationBody(cu, sourceFile, block, umlOperation.getParameterDeclarationList());
+			OperationBody body;
+			if(compilationUnitSource != null) {
+				body = new OperationBody(compilationUnitSource, block, umlOperation.getParameterDeclarationList());
+				int start = methodDeclaration.getStartPosition();
+				umlOperation.setSourceFingerprint(Fingerprint.builder().append(compilationUnitSource.getContents(), start, start + methodDeclaration.getLength()).build());
+			}
+			else {
+				body = new OperationBody(cu, sourceFile, block, umlOperation.getParameterDeclarationList());
+			}
 			umlOperation.setBody(body);
 			if(block.statements().size() == 0) {
 				umlOperation.setEmptyBody(true);
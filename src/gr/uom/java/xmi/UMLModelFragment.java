@@ -0,0 +1,97 @@
+package gr.uom.java.xmi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of a {@link UMLModel} extracted from a single Java source file.
+ * Fragments can be added to another model, as long as they are not used by two models that are diffed concurrently.
+ */
+public class UMLModelFragment {
+	private final String sourceFile;
+	private final int sourceLength;
+	private final List<UMLClass> classList;
+	private final List<UMLGeneralization> generalizationList;
+	private final List<UMLRealization> realizationList;
+	private final CompilationUnitSource compilationUnitSource;
+
+	public UMLModelFragment(String sourceFile, int sourceLength, List<UMLClass> classList,
+			List<UMLGeneralization> generalizationList, List<UMLRealization> realizationList) {
+		this(sourceFile, sourceLength, classList, generalizationList, realizationList, null);
+	}
+
+	/**
+	 * @param compilationUnitSource The source of the lazy operation bodies of the fragment, or null if they are all built.
+	 */
+	public UMLModelFragment(String sourceFile, int sourceLength, List<UMLClass> classList,
+			List<UMLGeneralization> generalizationList, List<UMLRealization> realizationList, CompilationUnitSource compilationUnitSource) {
+		this.compilationUnitSource = compilationUnitSource;
+		this.sourceFile = sourceFile;
+		this.sourceLength = sourceLength;
+		this.classList = new ArrayList<UMLClass>(classList);
+		this.generalizationList = new ArrayList<UMLGeneralization>(generalizationList);
+		this.realizationList = new ArrayList<UMLRealization>(realizationList);
+	}
+
+	public String getSourceFile() {
+		return sourceFile;
+	}
+
+	public int getSourceLength() {
+		return sourceLength;
+	}
+
+	public List<UMLClass> getClassList() {
+		return classList;
+	}
+
+	public List<UMLGeneralization> getGeneralizationList() {
+		return generalizationList;
+	}
+
+	public List<UMLRealization> getRealizationList() {
+		return realizationList;
+	}
+
+	public void addTo(UMLModel umlModel) {
+		for(UMLClass umlClass : classList) {
+			umlModel.addClass(umlClass);
+		}
+		for(UMLGeneralization generalization : generalizationList) {
+			umlModel.addGeneralization(generalization);
+		}
+		for(UMLRealization realization : realizationList) {
+			umlModel.addRealization(realization);
+		}
+	}
+
+	/**
+	 * Restores the statements of all operations to the state they had right after parsing,
+	 * discarding the parameter-to-argument replacements applied while diffing a previous model.
+	 */
+	public void clearArgumentization() {
+		for(UMLClass umlClass : classList) {
+			clearArgumentization(umlClass);
+			for(UMLAnonymousClass anonymousClass : umlClass.getAnonymousClassList()) {
+				clearArgumentization(anonymousClass);
+			}
+		}
+	}
+
+	/**
+	 * Releases the compilation unit kept for the operation bodies not built yet, so that a cached fragment only keeps its source.
+	 */
+	public void releaseCompilationUnit() {
+		if(compilationUnitSource != null) {
+			compilationUnitSource.releaseCompilationUnit();
+		}
+	}
+
+	private static void clearArgumentization(UMLAbstractClass umlClass) {
+		for(UMLOperation operation : umlClass.getOperations()) {
+			if(operation.getBody() != null) {
+				operation.getBody().clearArgumentization();
+			}
+		}
+	}
+}
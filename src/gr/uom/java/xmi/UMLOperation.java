@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.refactoringminer.util.AstUtils;
+import org.refactoringminer.util.Fingerprint;
 
 public class UMLOperation implements Comparable<UMLOperation>, Serializable, LocationInfoProvider {
 	private LocationInfo locationInfo;
@@ -41,6 +42,7 @@ public class UMLOperation implements Comparable<UMLOperation>, Serializable, Loc
 	private List<UMLAnnotation> annotations;
 	private List<UMLComment> comments;
 	private Map<String, Set<VariableDeclaration>> variableDeclarationMap;
+	private Fingerprint sourceFingerprint;
 	
 	public UMLOperation(String name, LocationInfo locationInfo) {
 		this.locationInfo = locationInfo;
@@ -270,6 +272,24 @@ public class UMLOperation implements Comparable<UMLOperation>, Serializable, Loc
 		this.operationBody = body;
 	}
 
+	public Fingerprint getSourceFingerprint() {
+		return sourceFingerprint;
+	}
+
+	/**
+	 * @param sourceFingerprint The fingerprint of the source text of the declaration of the operation, or null if not computed.
+	 */
+	public void setSourceFingerprint(Fingerprint sourceFingerprint) {
+		this.sourceFingerprint = sourceFingerprint;
+	}
+
+	/**
+	 * @return True if the declarations of both operations have the same source text, compared without building their bodies.
+	 */
+	public boolean hasIdenticalSource(UMLOperation operation) {
+		return this.sourceFingerprint != null && this.sourceFingerprint.equals(operation.sourceFingerprint);
+	}
+
 	public String getNonQualifiedClassName() {
 		return className.contains(".") ? className.substring(className.lastIndexOf(".")+1, className.length()) : className;
 	}
@@ -159,6 +159,10 @@ public abstract class AbstractCodeFragment implements LocationInfoProvider {
 		this.codeFragmentAfterReplacingParametersWithArguments = getString();
 	}
 
+	public void clearArgumentization() {
+		this.codeFragmentAfterReplacingParametersWithArguments = null;
+	}
+
 	public ObjectCreation creationCoveringEntireFragment() {
 		Map<String, List<ObjectCreation>> creationMap = getCreationMap();
 		String statement = getString();
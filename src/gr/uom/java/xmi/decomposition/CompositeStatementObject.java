@@ -104,6 +104,13 @@ public class CompositeStatementObject extends AbstractStatement {
 		}
 	}
 
+	public void clearArgumentization() {
+		super.clearArgumentization();
+		for(AbstractExpression expression : expressionList) {
+			expression.clearArgumentization();
+		}
+	}
+
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(locationInfo.getCodeElementType().getName());
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AssertStatement;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.BreakStatement;
@@ -22,6 +23,7 @@ import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.ForStatement;
 import org.eclipse.jdt.core.dom.IfStatement;
 import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.ReturnStatement;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
@@ -35,6 +37,9 @@ import org.eclipse.jdt.core.dom.TryStatement;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 
+import org.refactoringminer.util.Fingerprint;
+
+import gr.uom.java.xmi.CompilationUnitSource;
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.LocationInfo.CodeElementType;
 
@@ -44,13 +49,37 @@ public class OperationBody {
 	private List<String> stringRepresentation;
 	private boolean containsAssertion;
 	private Set<VariableDeclaration> activeVariableDeclarations;
-    private final String sha512;
+	private Fingerprint fingerprint;
+	//the source range of a lazy body, until its statements are built
+	private CompilationUnitSource source;
+	private int startPosition;
+	private int length;
+	private List<VariableDeclaration> parameters;
 
 	public OperationBody(CompilationUnit cu, String filePath, Block methodBody) {
 		this(cu, filePath, methodBody, Collections.emptyList());
 	}
 
 	public OperationBody(CompilationUnit cu, String filePath, Block methodBody, List<VariableDeclaration> parameters) {
+		build(cu, filePath, methodBody, parameters);
+	}
+
+	/**
+	 * Creates a lazy body, whose statements are built on first use from the compilation unit of the given source.
+	 * Only the source range of the body is kept until then.
+	 */
+	public OperationBody(CompilationUnitSource source, Block methodBody, List<VariableDeclaration> parameters) {
+		this.source = source;
+		this.startPosition = methodBody.getStartPosition();
+		this.length = methodBody.getLength();
+		this.parameters = parameters;
+		source.addPendingBody();
+		for(VariableDeclaration parameter : parameters) {
+			parameter.setPendingScopeBody(this);
+		}
+	}
+
+	private void build(CompilationUnit cu, String filePath, Block methodBody, List<VariableDeclaration> parameters) {
 		this.compositeStatement = new CompositeStatementObject(cu, filePath, methodBody, 0, CodeElementType.BLOCK);
 		this.activeVariableDeclarations = new HashSet<VariableDeclaration>();
 		this.activeVariableDeclarations.addAll(parameters);
@@ -65,28 +94,53 @@ public class OperationBody {
 			}
 		}
 		this.activeVariableDeclarations = null;
-		sha512 = org.refactoringminer.util.Hashing.getSHA512(String.join("", stringRepresentation()));
+	}
+
+	/**
+	 * Builds the statements of a lazy body, if not built yet.
+	 */
+	public synchronized void materialize() {
+		if(compositeStatement == null) {
+			CompilationUnit cu = source.getCompilationUnit();
+			ASTNode node = NodeFinder.perform(cu, startPosition, length);
+			if(!(node instanceof Block)) {
+				throw new IllegalStateException("No method body at " + startPosition + " in " + source.getFilePath());
+			}
+			for(VariableDeclaration parameter : parameters) {
+				parameter.setPendingScopeBody(null);
+			}
+			build(cu, source.getFilePath(), (Block)node, parameters);
+			source.bodyBuilt();
+			this.source = null;
+			this.parameters = null;
+		}
+	}
+
+	public boolean isMaterialized() {
+		return compositeStatement != null;
 	}
 
 	public int statementCount() {
-		return compositeStatement.statementCount();
+		return getCompositeStatement().statementCount();
 	}
 
 	public CompositeStatementObject getCompositeStatement() {
+		materialize();
 		return compositeStatement;
 	}
 
 	public boolean containsAssertion() {
+		materialize();
 		return containsAssertion;
 	}
 
 	public List<AnonymousClassDeclarationObject> getAllAnonymousClassDeclarations() {
-		return new ArrayList<AnonymousClassDeclarationObject>(compositeStatement.getAllAnonymousClassDeclarations());
+		return new ArrayList<AnonymousClassDeclarationObject>(getCompositeStatement().getAllAnonymousClassDeclarations());
 	}
 
 	public List<OperationInvocation> getAllOperationInvocations() {
 		List<OperationInvocation> invocations = new ArrayList<OperationInvocation>();
-		Map<String, List<OperationInvocation>> invocationMap = compositeStatement.getAllMethodInvocations();
+		Map<String, List<OperationInvocation>> invocationMap = getCompositeStatement().getAllMethodInvocations();
 		for(String key : invocationMap.keySet()) {
 			invocations.addAll(invocationMap.get(key));
 		}
@@ -94,23 +148,23 @@ public class OperationBody {
 	}
 
 	public List<LambdaExpressionObject> getAllLambdas() {
-		return new ArrayList<LambdaExpressionObject>(compositeStatement.getAllLambdas());
+		return new ArrayList<LambdaExpressionObject>(getCompositeStatement().getAllLambdas());
 	}
 
 	public List<String> getAllVariables() {
-		return new ArrayList<String>(compositeStatement.getAllVariables());
+		return new ArrayList<String>(getCompositeStatement().getAllVariables());
 	}
 
 	public List<VariableDeclaration> getAllVariableDeclarations() {
-		return new ArrayList<VariableDeclaration>(compositeStatement.getAllVariableDeclarations());
+		return new ArrayList<VariableDeclaration>(getCompositeStatement().getAllVariableDeclarations());
 	}
 
 	public List<VariableDeclaration> getVariableDeclarationsInScope(LocationInfo location) {
-		return new ArrayList<VariableDeclaration>(compositeStatement.getVariableDeclarationsInScope(location));
+		return new ArrayList<VariableDeclaration>(getCompositeStatement().getVariableDeclarationsInScope(location));
 	}
 
 	public VariableDeclaration getVariableDeclaration(String variableName) {
-		return compositeStatement.getVariableDeclaration(variableName);
+		return getCompositeStatement().getVariableDeclaration(variableName);
 	}
 
 	private void processStatement(CompilationUnit cu, String filePath, CompositeStatementObject parent, Statement statement) {
@@ -356,22 +410,57 @@ public class OperationBody {
 		}
 	}
 
+	public void clearArgumentization() {
+		if(!isMaterialized()) {
+			//not argumentized yet
+			return;
+		}
+		for(CompositeStatementObject innerNode : compositeStatement.getInnerNodes()) {
+			innerNode.clearArgumentization();
+		}
+		for(StatementObject leaf : compositeStatement.getLeaves()) {
+			leaf.clearArgumentization();
+		}
+		for(LambdaExpressionObject lambda : compositeStatement.getAllLambdas()) {
+			if(lambda.getBody() != null) {
+				lambda.getBody().clearArgumentization();
+			}
+			if(lambda.getExpression() != null) {
+				lambda.getExpression().clearArgumentization();
+			}
+		}
+	}
+
 	public Map<String, Set<String>> aliasedAttributes() {
-		return compositeStatement.aliasedAttributes();
+		return getCompositeStatement().aliasedAttributes();
 	}
 
 	public CompositeStatementObject loopWithVariables(String currentElementName, String collectionName) {
-		return compositeStatement.loopWithVariables(currentElementName, collectionName);
+		return getCompositeStatement().loopWithVariables(currentElementName, collectionName);
 	}
 
 	public List<String> stringRepresentation() {
 		if(stringRepresentation == null) {
-			stringRepresentation = compositeStatement.stringRepresentation();
+			stringRepresentation = getCompositeStatement().stringRepresentation();
 		}
 		return stringRepresentation;
 	}
 
-    public String getSha512() {
-        return sha512;
-    }
+	/**
+	 * @return The fingerprint of the statements of the body, computed on first request.
+	 */
+	public Fingerprint getFingerprint() {
+		if(fingerprint == null) {
+			Fingerprint.Builder builder = Fingerprint.builder();
+			for(String statement : stringRepresentation()) {
+				builder.append(statement);
+			}
+			fingerprint = builder.build();
+		}
+		return fingerprint;
+	}
+
+	public boolean hasSameFingerprint(OperationBody other) {
+		return getFingerprint().equals(other.getFingerprint());
+	}
 }
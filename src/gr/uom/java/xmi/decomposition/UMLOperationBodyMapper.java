@@ -52,7 +52,6 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
-import org.refactoringminer.util.Hashing;
 import org.refactoringminer.util.PrefixSuffixUtils;
 
 public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper> {
@@ -5162,12 +5161,12 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 		if (body1 == null || body2 == null) {
 			return false;
 		}
-		return body1.getSha512().equals(body2.getSha512());
+		return body1.hasSameFingerprint(body2);
 	}
 
 	public boolean differentComment(){
-		String comments1 = Hashing.getSHA512(operation1.getComments().stream().map(UMLComment::getText).collect(Collectors.joining(";")));
-		String comments2 = Hashing.getSHA512(operation2.getComments().stream().map(UMLComment::getText).collect(Collectors.joining(";")));
+		String comments1 = operation1.getComments().stream().map(UMLComment::getText).collect(Collectors.joining(";"));
+		String comments2 = operation2.getComments().stream().map(UMLComment::getText).collect(Collectors.joining(";"));
 		return !comments1.equals(comments2);
 	}
 
@@ -37,6 +37,8 @@ public class VariableDeclaration implements LocationInfoProvider, VariableDeclar
 	private VariableScope scope;
 	private boolean isFinal;
 	private List<UMLAnnotation> annotations;
+	//the lazy body of the operation declaring this parameter, whose statements are not in the scope yet
+	private OperationBody pendingScopeBody;
 	
 	public VariableDeclaration(CompilationUnit cu, String filePath, VariableDeclarationFragment fragment) {
 		this.annotations = new ArrayList<UMLAnnotation>();
@@ -160,9 +162,20 @@ public class VariableDeclaration implements LocationInfoProvider, VariableDeclar
 	}
 
 	public VariableScope getScope() {
+		materializeScope();
 		return scope;
 	}
 
+	void setPendingScopeBody(OperationBody pendingScopeBody) {
+		this.pendingScopeBody = pendingScopeBody;
+	}
+
+	private void materializeScope() {
+		if(pendingScopeBody != null) {
+			pendingScopeBody.materialize();
+		}
+	}
+
 	public boolean isParameter() {
 		return isParameter;
 	}
@@ -327,6 +340,7 @@ public class VariableDeclaration implements LocationInfoProvider, VariableDeclar
 	}
 
 	public List<AbstractCodeFragment> getStatementsInScopeUsingVariable() {
+		materializeScope();
 		return scope.getStatementsInScopeUsingVariable();
 	}
 }
@@ -13,6 +13,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringMinerInterruptedException;
 import org.refactoringminer.util.PrefixSuffixUtils;
 
 import gr.uom.java.xmi.UMLOperation;
@@ -107,15 +108,25 @@ public class VariableReplacementAnalysis {
 			this.removedVariables.addAll(operation1.getAllVariableDeclarations());
 			this.addedVariables.addAll(operation2.getAllVariableDeclarations());
 		}
+		checkInterrupted();
 		findVariableSplits();
 		findVariableMerges();
+		checkInterrupted();
 		findConsistentVariableRenames();
+		checkInterrupted();
 		findParametersWrappedInLocalVariables();
 		findAttributeExtractions();
 		findTypeChanges();
 		findMarchingVariablesWithoutVariableDeclarationMapping();
 	}
 
+	//an interrupted analysis must not yield a partially initialized object
+	private static void checkInterrupted() {
+		if(Thread.currentThread().isInterrupted()) {
+			throw new RefactoringMinerInterruptedException();
+		}
+	}
+
 	private void findMarchingVariablesWithoutVariableDeclarationMapping() {
 		Set<VariableDeclaration> removedVariablesToBeRemoved = new LinkedHashSet<>();
 		Set<VariableDeclaration> addedVariablesToBeRemoved = new LinkedHashSet<>();
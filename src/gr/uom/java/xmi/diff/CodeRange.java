@@ -88,16 +88,25 @@ public class CodeRange {
 	}
 
 	public String toString() {
+		return toJSON(false);
+	}
+
+	/**
+	 * @param compact Whether the JSON is written without line breaks, indentation and spaces after the colons.
+	 */
+	public String toJSON(boolean compact) {
 		StringBuilder sb = new StringBuilder();
-		sb.append("{").append("\n");
-		encodeStringProperty(sb, "filePath", filePath, false);
-		encodeIntProperty(sb, "startLine", startLine, false);
-		encodeIntProperty(sb, "endLine", endLine, false);
-		encodeIntProperty(sb, "startColumn", startColumn, false);
-		encodeIntProperty(sb, "endColumn", endColumn, false);
-		encodeStringProperty(sb, "codeElementType", codeElementType.name(), false);
-		encodeStringProperty(sb, "description", description, false);
-		encodeStringProperty(sb, "codeElement", escapeQuotes(codeElement), true);
+		sb.append("{");
+		if(!compact)
+			sb.append("\n");
+		encodeStringProperty(sb, "filePath", filePath, false, compact);
+		encodeIntProperty(sb, "startLine", startLine, false, compact);
+		encodeIntProperty(sb, "endLine", endLine, false, compact);
+		encodeIntProperty(sb, "startColumn", startColumn, false, compact);
+		encodeIntProperty(sb, "endColumn", endColumn, false, compact);
+		encodeStringProperty(sb, "codeElementType", codeElementType.name(), false, compact);
+		encodeStringProperty(sb, "description", description, false, compact);
+		encodeStringProperty(sb, "codeElement", escapeQuotes(codeElement), true, compact);
 		sb.append("}");
 		return sb.toString();
 	}
@@ -112,24 +121,33 @@ public class CodeRange {
 		return s;
 	}
 
-	private void encodeStringProperty(StringBuilder sb, String propertyName, String value, boolean last) {
+	private void encodeStringProperty(StringBuilder sb, String propertyName, String value, boolean last, boolean compact) {
+		encodePropertyName(sb, propertyName, compact);
 		if(value != null)
-			sb.append("\t").append("\t").append("\"" + propertyName + "\"" + ": " + "\"" + value + "\"");
+			sb.append("\"" + value + "\"");
 		else
-			sb.append("\t").append("\t").append("\"" + propertyName + "\"" + ": " + value);
-		insertNewLine(sb, last);
+			sb.append(value);
+		insertNewLine(sb, last, compact);
 	}
 
-	private void encodeIntProperty(StringBuilder sb, String propertyName, int value, boolean last) {
-		sb.append("\t").append("\t").append("\"" + propertyName + "\"" + ": " + value);
-		insertNewLine(sb, last);
+	private void encodeIntProperty(StringBuilder sb, String propertyName, int value, boolean last, boolean compact) {
+		encodePropertyName(sb, propertyName, compact);
+		sb.append(value);
+		insertNewLine(sb, last, compact);
 	}
 
-	private void insertNewLine(StringBuilder sb, boolean last) {
-		if(last)
-			sb.append("\n");
+	private void encodePropertyName(StringBuilder sb, String propertyName, boolean compact) {
+		if(compact)
+			sb.append("\"" + propertyName + "\"" + ":");
 		else
-			sb.append(",").append("\n");
+			sb.append("\t").append("\t").append("\"" + propertyName + "\"" + ": ");
+	}
+
+	private void insertNewLine(StringBuilder sb, boolean last, boolean compact) {
+		if(!last)
+			sb.append(",");
+		if(!compact)
+			sb.append("\n");
 	}
 
 	public static CodeRange computeRange(Set<AbstractCodeFragment> codeFragments) {
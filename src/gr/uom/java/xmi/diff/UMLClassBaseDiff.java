@@ -279,21 +279,27 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 
 	protected void processOperations() throws RefactoringMinerTimedOutException {
 		for(UMLOperation operation : originalClass.getOperations()) {
+    		if(Thread.interrupted()) {
+    			throw new RefactoringMinerTimedOutException();
+    		}
     		UMLOperation operationWithTheSameSignature = nextClass.operationWithTheSameSignatureIgnoringChangedTypes(operation);
 			if(operationWithTheSameSignature == null) {
 				this.removedOperations.add(operation);
     		}
-			else if(!mapperListContainsOperation(operation, operationWithTheSameSignature)) {
+			else if(!operation.hasIdenticalSource(operationWithTheSameSignature) && !mapperListContainsOperation(operation, operationWithTheSameSignature)) {
 				UMLOperationBodyMapper mapper = new UMLOperationBodyMapper(operation, operationWithTheSameSignature, this);
 				this.operationBodyMapperList.add(mapper);
 			}
     	}
     	for(UMLOperation operation : nextClass.getOperations()) {
+    		if(Thread.interrupted()) {
+    			throw new RefactoringMinerTimedOutException();
+    		}
     		UMLOperation operationWithTheSameSignature = originalClass.operationWithTheSameSignatureIgnoringChangedTypes(operation);
 			if(operationWithTheSameSignature == null) {
 				this.addedOperations.add(operation);
     		}
-			else if(!mapperListContainsOperation(operationWithTheSameSignature, operation)) {
+			else if(!operationWithTheSameSignature.hasIdenticalSource(operation) && !mapperListContainsOperation(operationWithTheSameSignature, operation)) {
 				UMLOperationBodyMapper mapper = new UMLOperationBodyMapper(operationWithTheSameSignature, operation, this);
 				this.operationBodyMapperList.add(mapper);
 			}
@@ -1121,6 +1127,9 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 				TreeSet<UMLOperationBodyMapper> mapperSet = new TreeSet<UMLOperationBodyMapper>();
 				for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 					UMLOperation addedOperation = addedOperationIterator.next();
+					if(Thread.interrupted()) {
+						throw new RefactoringMinerTimedOutException();
+					}
 					int maxDifferenceInPosition;
 					if(removedOperation.hasTestAnnotation() && addedOperation.hasTestAnnotation()) {
 						maxDifferenceInPosition = Math.abs(removedOperations.size() - addedOperations.size());
@@ -1167,6 +1176,9 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 				TreeSet<UMLOperationBodyMapper> mapperSet = new TreeSet<UMLOperationBodyMapper>();
 				for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 					UMLOperation removedOperation = removedOperationIterator.next();
+					if(Thread.interrupted()) {
+						throw new RefactoringMinerTimedOutException();
+					}
 					int maxDifferenceInPosition;
 					if(removedOperation.hasTestAnnotation() && addedOperation.hasTestAnnotation()) {
 						maxDifferenceInPosition = Math.abs(removedOperations.size() - addedOperations.size());
@@ -1744,6 +1756,9 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 	private void checkForInlinedOperations() throws RefactoringMinerTimedOutException {
 		List<UMLOperation> operationsToBeRemoved = new ArrayList<UMLOperation>();
 		for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
+			if(Thread.interrupted()) {
+				throw new RefactoringMinerTimedOutException();
+			}
 			UMLOperation removedOperation = removedOperationIterator.next();
 			for(UMLOperationBodyMapper mapper : getOperationBodyMapperList()) {
 				InlineOperationDetection detection = new InlineOperationDetection(mapper, removedOperations, this, modelDiff);
@@ -1763,6 +1778,9 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 	private void checkForExtractedOperations() throws RefactoringMinerTimedOutException {
 		List<UMLOperation> operationsToBeRemoved = new ArrayList<UMLOperation>();
 		for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
+			if(Thread.interrupted()) {
+				throw new RefactoringMinerTimedOutException();
+			}
 			UMLOperation addedOperation = addedOperationIterator.next();
 			for(UMLOperationBodyMapper mapper : getOperationBodyMapperList()) {
 				ExtractOperationDetection detection = new ExtractOperationDetection(mapper, addedOperations, this, modelDiff);
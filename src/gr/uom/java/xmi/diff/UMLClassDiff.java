@@ -107,6 +107,10 @@ public class UMLClassDiff extends UMLClassBaseDiff {
 							}
 						}
 					}
+					if(originalOperation.hasIdenticalSource(nextOperation)) {
+						//unchanged, like the operations of an unchanged file
+						continue;
+					}
 	    			UMLOperationBodyMapper operationBodyMapper = new UMLOperationBodyMapper(originalOperation, nextOperation, this);
 	    			this.addOperationBodyMapper(operationBodyMapper);
 				}
@@ -129,6 +133,9 @@ public class UMLClassDiff extends UMLClassBaseDiff {
 	    				}
     				}
     			}
+    			if(operation.hasIdenticalSource(nextClass.getOperations().get(finalIndex))) {
+    				continue;
+    			}
     			UMLOperationBodyMapper operationBodyMapper = new UMLOperationBodyMapper(operation, nextClass.getOperations().get(finalIndex), this);
     			this.addOperationBodyMapper(operationBodyMapper);
     		}
@@ -453,6 +453,9 @@ public class UMLModelDiff {
 		   TreeSet<UMLClassMoveDiff> diffSet = new TreeSet<UMLClassMoveDiff>(new ClassMoveComparator());
 		   for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
 			   UMLClass addedClass = addedClassIterator.next();
+			   if(Thread.interrupted()) {
+			      throw new RefactoringMinerTimedOutException();
+			   }
 			   String removedClassSourceFile = removedClass.getSourceFile();
 			   String renamedFile =  renamedFileHints.get(removedClassSourceFile);
 			   String removedClassSourceFolder = "";
@@ -522,6 +525,9 @@ public class UMLModelDiff {
          TreeSet<UMLClassRenameDiff> diffSet = new TreeSet<UMLClassRenameDiff>(new ClassRenameComparator());
          for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
             UMLClass addedClass = addedClassIterator.next();
+            if(Thread.interrupted()) {
+               throw new RefactoringMinerTimedOutException();
+            }
             String renamedFile =  renamedFileHints.get(removedClass.getSourceFile());
             if(matcher.match(removedClass, addedClass, renamedFile)) {
                if(!conflictingMoveOfTopLevelClass(removedClass, addedClass) && !innerClassWithTheSameName(removedClass, addedClass)) {
@@ -1388,6 +1394,9 @@ public class UMLModelDiff {
       Map<Replacement, Set<CandidateAttributeRefactoring>> renameMap = new LinkedHashMap<Replacement, Set<CandidateAttributeRefactoring>>();
       Map<MergeVariableReplacement, Set<CandidateMergeVariableRefactoring>> mergeMap = new LinkedHashMap<MergeVariableReplacement, Set<CandidateMergeVariableRefactoring>>();
       for(UMLClassDiff classDiff : commonClassDiffList) {
+         if(Thread.interrupted()) {
+            throw new RefactoringMinerTimedOutException();
+         }
          refactorings.addAll(classDiff.getRefactorings());
          extractMergePatterns(classDiff, mergeMap);
 		 extractRenamePatterns(classDiff, renameMap);
@@ -1618,6 +1627,9 @@ public class UMLModelDiff {
       for(UMLClassRenameDiff classDiff : classRenameDiffList) {
     	  inferMethodSignatureRelatedRefactorings(classDiff, refactorings);
       }
+      if(Thread.interrupted()) {
+         throw new RefactoringMinerTimedOutException();
+      }
       return filterOutDuplicateRefactorings(refactorings);
    }
 
@@ -1843,6 +1855,9 @@ public class UMLModelDiff {
    private void checkForMovedAndInlinedOperations(List<UMLOperationBodyMapper> mappers, List<UMLOperation> removedOperations) throws RefactoringMinerTimedOutException {
 	   for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 		   UMLOperation removedOperation = removedOperationIterator.next();
+		   if(Thread.interrupted()) {
+		      throw new RefactoringMinerTimedOutException();
+		   }
 		   for(UMLOperationBodyMapper mapper : mappers) {
 			   if(!mapper.getNonMappedLeavesT2().isEmpty() || !mapper.getNonMappedInnerNodesT2().isEmpty() || !mapper.getReplacementsInvolvingMethodInvocation().isEmpty()) {
 				   List<OperationInvocation> operationInvocations = mapper.getOperation1().getAllOperationInvocations();
@@ -1932,6 +1947,9 @@ public class UMLModelDiff {
    private void checkForExtractedAndMovedOperations(List<UMLOperationBodyMapper> mappers, List<UMLOperation> addedOperations) throws RefactoringMinerTimedOutException {
       for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
     	  UMLOperation addedOperation = addedOperationIterator.next();
+    	  if(Thread.interrupted()) {
+    	     throw new RefactoringMinerTimedOutException();
+    	  }
     	  for(UMLOperationBodyMapper mapper : mappers) {
     		  Pair<UMLOperation, UMLOperation> pair = Pair.of(mapper.getOperation1(), addedOperation);
     		  if((mapper.nonMappedElementsT1() > 0 || !mapper.getReplacementsInvolvingMethodInvocation().isEmpty()) && !mapper.containsExtractOperationRefactoring(addedOperation) && !processedOperationPairs.contains(pair)) {
@@ -2262,6 +2280,9 @@ public class UMLModelDiff {
 	         TreeMap<Integer, List<UMLOperationBodyMapper>> operationBodyMapperMap = new TreeMap<Integer, List<UMLOperationBodyMapper>>();
 	         for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 	            UMLOperation removedOperation = removedOperationIterator.next();
+	            if(Thread.interrupted()) {
+	               throw new RefactoringMinerTimedOutException();
+	            }
 	            
 	            Pair<UMLOperation, UMLOperation> pair = Pair.of(removedOperation, addedOperation);
 	            if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation)) {
@@ -2360,6 +2381,9 @@ public class UMLModelDiff {
 	         TreeMap<Integer, List<UMLOperationBodyMapper>> operationBodyMapperMap = new TreeMap<Integer, List<UMLOperationBodyMapper>>();
 	         for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 	            UMLOperation addedOperation = addedOperationIterator.next();
+	            if(Thread.interrupted()) {
+	               throw new RefactoringMinerTimedOutException();
+	            }
 	            
 	            Pair<UMLOperation, UMLOperation> pair = Pair.of(removedOperation, addedOperation);
 	            if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation)) {
@@ -1,10 +1,8 @@
 package org.refactoringminer;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import gr.uom.java.xmi.diff.UMLModelDiff;
 import java.util.List;
 
@@ -14,10 +12,12 @@ import org.refactoringminer.api.GitService;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringHandler;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+import org.refactoringminer.util.CommitJSONWriter;
 import org.refactoringminer.util.GitServiceImpl;
 
 public class RefactoringMiner {
 	private static Path path = null;
+	private static CommitJSONWriter writer = null;
 	public static void main(String[] args) throws Exception {
 		if (args.length < 1) {
 			throw argumentException();
@@ -63,14 +63,9 @@ public class RefactoringMiner {
 			GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 			startJSON();
 			detector.detectAll(repo, branch, new RefactoringHandler() {
-				private int commitCount = 0;
 				@Override
 				public void handle(String commitId, List<Refactoring> refactorings) {
-					if(commitCount > 0) {
-						betweenCommitsJSON();
-					}
 					commitJSON(gitURL, commitId, refactorings);
-					commitCount++;
 				}
 
 				@Override
@@ -107,14 +102,9 @@ public class RefactoringMiner {
 			GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 			startJSON();
 			detector.detectBetweenCommits(repo, startCommit, endCommit, new RefactoringHandler() {
-				private int commitCount = 0;
 				@Override
 				public void handle(String commitId, List<Refactoring> refactorings) {
-					if(commitCount > 0) {
-						betweenCommitsJSON();
-					}
 					commitJSON(gitURL, commitId, refactorings);
-					commitCount++;
 				}
 
 				@Override
@@ -147,14 +137,9 @@ public class RefactoringMiner {
 			GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 			startJSON();
 			detector.detectBetweenTags(repo, startTag, endTag, new RefactoringHandler() {
-				private int commitCount = 0;
 				@Override
 				public void handle(String commitId, List<Refactoring> refactorings) {
-					if(commitCount > 0) {
-						betweenCommitsJSON();
-					}
 					commitJSON(gitURL, commitId, refactorings);
-					commitCount++;
 				}
 
 				@Override
@@ -246,14 +231,9 @@ public class RefactoringMiner {
 		GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 		startJSON();
 		detector.detectAtPullRequest(gitURL, pullId, new RefactoringHandler() {
-			private int commitCount = 0;
 			@Override
 			public void handle(String commitId, List<Refactoring> refactorings) {
-				if(commitCount > 0) {
-					betweenCommitsJSON();
-				}
 				commitJSON(gitURL, commitId, refactorings);
-				commitCount++;
 			}
 
 			@Override
@@ -268,51 +248,15 @@ public class RefactoringMiner {
 	private static int processJSONoption(String[] args, int maxArgLength) {
 		if (args[args.length-2].equalsIgnoreCase("-json")) {
 			path = Paths.get(args[args.length-1]);
-			try {
-				Files.createFile(path);
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
 			maxArgLength = maxArgLength + 2;
 		}
 		return maxArgLength;
 	}
 
 	private static void commitJSON(String cloneURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) {
-		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append("{").append("\n");
-			sb.append("\t").append("\"").append("repository").append("\"").append(": ").append("\"").append(cloneURL).append("\"").append(",").append("\n");
-			sb.append("\t").append("\"").append("sha1").append("\"").append(": ").append("\"").append(currentCommitId).append("\"").append(",").append("\n");
-			String url = GitHistoryRefactoringMinerImpl.extractCommitURL(cloneURL, currentCommitId);
-			sb.append("\t").append("\"").append("url").append("\"").append(": ").append("\"").append(url).append("\"").append(",").append("\n");
-			sb.append("\t").append("\"").append("refactorings").append("\"").append(": ");
-			sb.append("[");
-			int counter = 0;
-			for(Refactoring refactoring : refactoringsAtRevision) {
-				sb.append(refactoring.toJSON());
-				if(counter < refactoringsAtRevision.size()-1) {
-					sb.append(",");
-				}
-				sb.append("\n");
-				counter++;
-			}
-			sb.append("]").append("\n");
-			sb.append("}");
-			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
-	}
-
-	private static void betweenCommitsJSON() {
-		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append(",").append("\n");
+		if(writer != null) {
 			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
+				writer.writeCommit(cloneURL, currentCommitId, refactoringsAtRevision);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -321,12 +265,8 @@ public class RefactoringMiner {
 
 	private static void startJSON() {
 		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append("{").append("\n");
-			sb.append("\"").append("commits").append("\"").append(": ");
-			sb.append("[").append("\n");
 			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
+				writer = new CommitJSONWriter(path);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -334,12 +274,9 @@ public class RefactoringMiner {
 	}
 
 	private static void endJSON() {
-		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append("]").append("\n");
-			sb.append("}");
+		if(writer != null) {
 			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
+				writer.close();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -360,6 +297,8 @@ public class RefactoringMiner {
 				"-gc <git-URL> <commit-sha1> <timeout> -json <path-to-json-file>\t\t\t\tDetect refactorings at specified commit <commit-sha1> for project <git-URL> within the given <timeout> in seconds. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
 		System.out.println(
 				"-gp <git-URL> <pull-request> <timeout> -json <path-to-json-file>\t\t\tDetect refactorings at specified pull request <pull-request> for project <git-URL> within the given <timeout> in seconds for each commit in the pull request. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
+		System.out.println(
+				"If <path-to-json-file> ends with .jsonl, one JSON object per commit is written on each line. If it ends with .gz, the output is compressed with gzip.");
 	}
 
 	private static IllegalArgumentException argumentException() {
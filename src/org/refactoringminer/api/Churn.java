@@ -1,13 +1,38 @@
 package org.refactoringminer.api;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class Churn {
 	
 	private final int linesAdded;
 	private final int linesRemoved;
+	private final Map<String, Churn> fileChurns;
 	
 	public Churn(int linesAdded, int linesRemoved) {
+		this(linesAdded, linesRemoved, Collections.<String, Churn>emptyMap());
+	}
+
+	/**
+	 * @param fileChurns The churn of each changed file, by path in the commit (the old path for a deleted file).
+	 */
+	public Churn(int linesAdded, int linesRemoved, Map<String, Churn> fileChurns) {
 		this.linesAdded = linesAdded;
 		this.linesRemoved = linesRemoved;
+		this.fileChurns = fileChurns;
+	}
+
+	/**
+	 * Sums the churn of the given files.
+	 */
+	public static Churn of(Map<String, Churn> fileChurns) {
+		int linesAdded = 0;
+		int linesRemoved = 0;
+		for (Churn fileChurn : fileChurns.values()) {
+			linesAdded += fileChurn.getLinesAdded();
+			linesRemoved += fileChurn.getLinesRemoved();
+		}
+		return new Churn(linesAdded, linesRemoved, Collections.unmodifiableMap(fileChurns));
 	}
 
 	public int getLinesAdded() {
@@ -21,4 +46,11 @@ public class Churn {
 	public int getChurn() {
 		return linesAdded + linesRemoved;
 	}
+
+	/**
+	 * @return The churn of each changed file, or an empty map if it was not computed per file.
+	 */
+	public Map<String, Churn> getFileChurns() {
+		return fileChurns;
+	}
 }
@@ -0,0 +1,35 @@
+package org.refactoringminer.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Persistent store of the results of the commits analyzed by a {@link GitHistoryRefactoringMiner},
+ * allowing an interrupted mining run to resume without analyzing the stored commits again.
+ * Implementations must be thread-safe.
+ */
+public interface CommitResultStore extends Closeable {
+
+	/**
+	 * @param commitId The SHA key that identifies the commit.
+	 * @return True if a result (refactorings or error) is stored for the commit.
+	 */
+	boolean contains(String commitId);
+
+	/**
+	 * Stores the refactorings detected in the given commit.
+	 */
+	void storeRefactorings(String commitId, List<Refactoring> refactorings) throws IOException;
+
+	/**
+	 * Stores the error that prevented the analysis of the given commit.
+	 */
+	void storeError(String commitId, Exception e) throws IOException;
+
+	/**
+	 * Reports all stored results to the given handler, in the order they were stored, without analyzing the commits again.
+	 * {@link RefactoringHandler#handleExtraInfo} is not called, since the model diffs are not stored.
+	 */
+	void replay(RefactoringHandler handler) throws IOException;
+}
@@ -0,0 +1,30 @@
+package org.refactoringminer.api;
+
+/**
+ * Thrown when the analysis of a commit exceeds its time budget.
+ */
+public class CommitTimedOutException extends RefactoringMinerTimedOutException {
+	private final String commitId;
+	private final int timeout;
+
+	public CommitTimedOutException(String commitId, int timeout) {
+		this.commitId = commitId;
+		this.timeout = timeout;
+	}
+
+	public String getCommitId() {
+		return commitId;
+	}
+
+	/**
+	 * @return The time budget in seconds.
+	 */
+	public int getTimeout() {
+		return timeout;
+	}
+
+	@Override
+	public String getMessage() {
+		return String.format("Analysis of commit %s exceeded the time budget of %d seconds", commitId, timeout);
+	}
+}
@@ -1,5 +1,7 @@
 package org.refactoringminer.api;
 
+import java.util.Collection;
+
 import org.eclipse.jgit.lib.Repository;
 
 /**
@@ -21,6 +23,20 @@ public interface GitHistoryRefactoringMiner {
 	 */
 	void detectAll(Repository repository, String branch, RefactoringHandler handler) throws Exception;
 
+	/**
+	 * Iterate over the commits of several refs of a git repository, such as branches and tags, and detect the performed refactorings.
+	 * The union of the histories of the refs is walked once in topological order, so that each commit is analyzed
+	 * only once, even if several refs contain it. The refs containing each commit are reported to
+	 * {@link RefactoringHandler#handleRefs}.
+	 * 
+	 * @param repository A git repository (from JGit library).
+	 * @param refs The names of the refs, such as {@code main}, {@code origin/main} or {@code refs/tags/v1.0}.
+	 * @param handler A handler object that is responsible to process the detected refactorings and
+	 *                control when to skip a commit. 
+	 * @throws Exception propagated from JGit library.
+	 */
+	void detectAllRefs(Repository repository, Collection<String> refs, RefactoringHandler handler) throws Exception;
+
 	/**
 	 * Iterate over commits between two release tags of a git repository and detect the performed refactorings.
 	 * 
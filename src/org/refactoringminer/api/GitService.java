@@ -1,5 +1,6 @@
 package org.refactoringminer.api;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -47,4 +48,32 @@ public interface GitService {
 
 	void fileTreeDiff(Repository repository, RevCommit leftSideCommit, RevCommit rightSideCommit, List<String> javaFilesBefore, List<String> javaFilesCurrent, Map<String, String> renamedFilesHint) throws Exception;
 
+	/**
+	 * Computes the changed Java files like {@link #fileTreeDiff(Repository, RevCommit, RevCommit, List, List, Map)},
+	 * and in the same diff, the churn of each changed file.
+	 * The default implementation delegates to that method and computes no churn, leaving {@code fileChurns} empty.
+	 * 
+	 * @param fileChurns Filled with the churn of each changed file, by path, or null to compute no churn.
+	 * @param javaFilesChurnOnly Whether the churn is computed for Java files only.
+	 */
+	default void fileTreeDiff(Repository repository, RevCommit leftSideCommit, RevCommit rightSideCommit, List<String> javaFilesBefore, List<String> javaFilesCurrent, Map<String, String> renamedFilesHint,
+			Map<String, Churn> fileChurns, boolean javaFilesChurnOnly) throws Exception {
+		fileTreeDiff(repository, leftSideCommit, rightSideCommit, javaFilesBefore, javaFilesCurrent, renamedFilesHint);
+	}
+
+	/**
+	 * Returns the commits that {@code commit} is diffed against: its parent, or for a merge commit, the commits selected by the merge strategy.
+	 * The default implementation returns the first parent.
+	 * 
+	 * @return The parsed left side commits, or an empty list for a root commit.
+	 */
+	default List<RevCommit> leftSideCommits(Repository repository, RevCommit commit) throws Exception {
+		if (commit.getParentCount() == 0) {
+			return Collections.emptyList();
+		}
+		try (RevWalk walk = new RevWalk(repository)) {
+			return Collections.singletonList(walk.parseCommit(commit.getParent(0)));
+		}
+	}
+
 }
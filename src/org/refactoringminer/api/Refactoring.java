@@ -2,6 +2,7 @@ package org.refactoringminer.api;
 
 import java.io.Serializable;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
@@ -26,15 +27,31 @@ public interface Refactoring extends Serializable, CodeRangeProvider {
 	public Set<ImmutablePair<String, String>> getInvolvedClassesAfterRefactoring();
 	
 	default public String toJSON() {
+		return toJSON(false);
+	}
+
+	/**
+	 * @param compact Whether the JSON is written without line breaks, indentation and spaces after the colons.
+	 */
+	default public String toJSON(boolean compact) {
 		StringBuilder sb = new StringBuilder();
 		JsonStringEncoder encoder = JsonStringEncoder.getInstance();
-		sb.append("{").append("\n");
-		sb.append("\t").append("\"").append("type").append("\"").append(": ").append("\"").append(getName()).append("\"").append(",").append("\n");
-		sb.append("\t").append("\"").append("description").append("\"").append(": ").append("\"");
+		String newLine = compact ? "" : "\n";
+		String indent = compact ? "" : "\t";
+		String colon = compact ? ":" : ": ";
+		sb.append("{").append(newLine);
+		sb.append(indent).append("\"").append("type").append("\"").append(colon).append("\"").append(getName()).append("\"").append(",").append(newLine);
+		sb.append(indent).append("\"").append("description").append("\"").append(colon).append("\"");
 		encoder.quoteAsString(toString().replace('\t', ' '), sb);
-		sb.append("\"").append(",").append("\n");
-		sb.append("\t").append("\"").append("leftSideLocations").append("\"").append(": ").append(leftSide()).append(",").append("\n");
-		sb.append("\t").append("\"").append("rightSideLocations").append("\"").append(": ").append(rightSide()).append("\n");
+		sb.append("\"").append(",").append(newLine);
+		if(compact) {
+			sb.append("\"").append("leftSideLocations").append("\"").append(colon).append(leftSide().stream().map(range -> range.toJSON(true)).collect(Collectors.joining(",", "[", "]"))).append(",");
+			sb.append("\"").append("rightSideLocations").append("\"").append(colon).append(rightSide().stream().map(range -> range.toJSON(true)).collect(Collectors.joining(",", "[", "]")));
+		}
+		else {
+			sb.append(indent).append("\"").append("leftSideLocations").append("\"").append(colon).append(leftSide()).append(",").append(newLine);
+			sb.append(indent).append("\"").append("rightSideLocations").append("\"").append(colon).append(rightSide()).append(newLine);
+		}
 		sb.append("}");
 		return sb.toString();
 	}
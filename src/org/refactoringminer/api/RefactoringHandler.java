@@ -3,6 +3,7 @@ package org.refactoringminer.api;
 import gr.uom.java.xmi.diff.UMLModelDiff;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handler object that works in conjunction with {@link org.refactoringminer.api.GitHistoryRefactoringMiner}.
@@ -57,8 +58,29 @@ public abstract class RefactoringHandler {
      * You should override this method to do your custom logic with the UMLModelDiff.
      *
      * @param commitId     The SHA key that identifies the commit.
-     * @param umlModelDiff ModelDiff of commit and its parent
+     * @param umlModelDiff ModelDiff of commit and its parent, or null if the models were not built,
+     *                     such as for a commit skipped by the commit pre-filter of the miner.
      */
     public void handleExtraInfo(String commitId, UMLModelDiff umlModelDiff) {
     }
+
+    /**
+     * This method is called after each commit is analyzed, when the miner computes the churn of the commits.
+     * You may override this method to do your custom logic with the churn.
+     *
+     * @param commitId The SHA key that identifies the commit.
+     * @param churn    Churn of the commit, with the churn of each changed file.
+     */
+    public void handleChurn(String commitId, Churn churn) {
+    }
+
+    /**
+     * This method is called when mining several refs at once, as each commit is walked, before it is analyzed.
+     * You may override this method to do your custom logic with the refs containing the commit.
+     *
+     * @param commitId The SHA key that identifies the commit.
+     * @param refs     Names of the mined refs containing the commit.
+     */
+    public void handleRefs(String commitId, Set<String> refs) {
+    }
 }
@@ -0,0 +1,16 @@
+package org.refactoringminer.api;
+
+/**
+ * Thrown when the thread building a model or analyzing a diff is interrupted, where a checked
+ * {@link RefactoringMinerTimedOutException} cannot be declared. The incomplete result is discarded.
+ */
+public class RefactoringMinerInterruptedException extends RuntimeException {
+
+	public RefactoringMinerInterruptedException() {
+		super("Analysis interrupted");
+	}
+
+	public RefactoringMinerInterruptedException(Throwable cause) {
+		super("Analysis interrupted", cause);
+	}
+}
@@ -0,0 +1,106 @@
+package org.refactoringminer.rm1;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.refactoringminer.util.JavaSourceNormalizer;
+
+/**
+ * Recognizes the commits whose changes cannot contain refactorings, so that their analysis ends before any model is built,
+ * and the files whose changes cannot contain refactorings, so that they are left out of the models.
+ * Counts the commits skipped by each rule and the skipped files. Thread-safe.
+ */
+public class CommitPreFilter {
+
+	public enum Rule {
+		/** No Java file is changed. */
+		NO_JAVA_CHANGES,
+		/** Java files are only added. */
+		ONLY_ADDED_FILES,
+		/** Java files are only deleted. */
+		ONLY_DELETED_FILES,
+		/** Java files are only modified in comments, whitespace and import declarations. */
+		ONLY_FORMATTING_CHANGES
+	}
+
+	private final Map<Rule, AtomicLong> skippedCommits = new EnumMap<Rule, AtomicLong>(Rule.class);
+	private final AtomicLong skippedFiles = new AtomicLong();
+
+	public CommitPreFilter() {
+		for (Rule rule : Rule.values()) {
+			skippedCommits.put(rule, new AtomicLong());
+		}
+	}
+
+	/**
+	 * Classifies a commit from the paths of the Java files it changes.
+	 *
+	 * @return The rule skipping the commit, or null if the contents of the files must be compared.
+	 */
+	public Rule classify(List<String> filesBefore, List<String> filesCurrent) {
+		Rule rule = null;
+		if (filesBefore.isEmpty() && filesCurrent.isEmpty()) {
+			rule = Rule.NO_JAVA_CHANGES;
+		}
+		else if (filesBefore.isEmpty()) {
+			rule = Rule.ONLY_ADDED_FILES;
+		}
+		else if (filesCurrent.isEmpty()) {
+			rule = Rule.ONLY_DELETED_FILES;
+		}
+		if (rule != null) {
+			skippedCommits.get(rule).incrementAndGet();
+		}
+		return rule;
+	}
+
+	/**
+	 * Recognizes two versions of a Java file modified in place differing only in comments, whitespace and import declarations,
+	 * which are left out of the models of both sides of the commit.
+	 *
+	 * @return True if the file is skipped.
+	 */
+	public boolean skipFile(String contentsBefore, String contentsCurrent) {
+		if (JavaSourceNormalizer.equivalent(contentsBefore, contentsCurrent)) {
+			skippedFiles.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Classifies a commit from the contents of the Java files it changes, once the identical files and the files
+	 * recognized by {@link #skipFile(String, String)} are removed.
+	 *
+	 * @return The rule skipping the commit, or null if the commit must be analyzed.
+	 */
+	public Rule classify(Map<String, String> fileContentsBefore, Map<String, String> fileContentsCurrent, Map<String, String> renamedFilesHint) {
+		if (!renamedFilesHint.isEmpty() || !fileContentsBefore.isEmpty() || !fileContentsCurrent.isEmpty()) {
+			return null;
+		}
+		skippedCommits.get(Rule.ONLY_FORMATTING_CHANGES).incrementAndGet();
+		return Rule.ONLY_FORMATTING_CHANGES;
+	}
+
+	public long getSkippedCommits(Rule rule) {
+		return skippedCommits.get(rule).get();
+	}
+
+	public long getSkippedFiles() {
+		return skippedFiles.get();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (Rule rule : Rule.values()) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(rule).append(": ").append(getSkippedCommits(rule));
+		}
+		return sb.append(", files: ").append(getSkippedFiles()).append("]").toString();
+	}
+}
@@ -0,0 +1,302 @@
+package org.refactoringminer.rm1;
+
+import gr.uom.java.xmi.LocationInfo.CodeElementType;
+import gr.uom.java.xmi.diff.CodeRange;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.refactoringminer.api.CommitResultStore;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.api.RefactoringType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * {@link CommitResultStore} appending one JSON line per commit to a file.
+ * The commits found in the file are indexed when the store is opened. A line left incomplete by a crash is discarded.
+ * The file is locked while the store is open, so that a single process writes to it.
+ */
+public class FileCommitResultStore implements CommitResultStore {
+	private static final Logger logger = LoggerFactory.getLogger(FileCommitResultStore.class);
+	private static final String SUCCESS = "success";
+	private static final String ERROR = "error";
+	private final File file;
+	private final ObjectMapper mapper = new ObjectMapper();
+	//offset of the latest line stored for each commit
+	private final Map<String, Long> index = new ConcurrentHashMap<String, Long>();
+	private final FileChannel channel;
+	private final FileLock lock;
+
+	public FileCommitResultStore(File file) throws IOException {
+		this.file = file;
+		long length = 0;
+		if (file.exists()) {
+			length = readLines(new LineConsumer() {
+				public void accept(long offset, JsonNode record) {
+					index.put(record.get("commitId").asText(), offset);
+				}
+			});
+			if (length < file.length()) {
+				logger.warn(String.format("Discarding incomplete result at the end of %s", file));
+				try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+					randomAccessFile.setLength(length);
+				}
+			}
+		}
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.lock = channel.tryLock();
+		if (lock == null) {
+			channel.close();
+			throw new IOException(String.format("%s is used by another process", file));
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public int size() {
+		return index.size();
+	}
+
+	@Override
+	public boolean contains(String commitId) {
+		return index.containsKey(commitId);
+	}
+
+	@Override
+	public void storeRefactorings(String commitId, List<Refactoring> refactorings) throws IOException {
+		ObjectNode record = mapper.createObjectNode();
+		record.put("commitId", commitId);
+		record.put("status", SUCCESS);
+		ArrayNode refactoringsNode = record.putArray("refactorings");
+		for (Refactoring refactoring : refactorings) {
+			ObjectNode refactoringNode = refactoringsNode.addObject();
+			refactoringNode.put("type", refactoring.getRefactoringType().name());
+			refactoringNode.put("description", refactoring.toString());
+			writeCodeRanges(refactoringNode.putArray("leftSideLocations"), refactoring.leftSide());
+			writeCodeRanges(refactoringNode.putArray("rightSideLocations"), refactoring.rightSide());
+			writeClasses(refactoringNode.putArray("involvedClassesBefore"), refactoring.getInvolvedClassesBeforeRefactoring());
+			writeClasses(refactoringNode.putArray("involvedClassesAfter"), refactoring.getInvolvedClassesAfterRefactoring());
+		}
+		append(commitId, record);
+	}
+
+	@Override
+	public void storeError(String commitId, Exception e) throws IOException {
+		ObjectNode record = mapper.createObjectNode();
+		record.put("commitId", commitId);
+		record.put("status", ERROR);
+		record.put("error", e.toString());
+		append(commitId, record);
+	}
+
+	private void append(String commitId, ObjectNode record) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		mapper.writeValue(bytes, record);
+		bytes.write('\n');
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		synchronized (channel) {
+			long offset = channel.size();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			index.put(commitId, offset);
+		}
+	}
+
+	@Override
+	public void replay(final RefactoringHandler handler) throws IOException {
+		final int[] counts = new int[3];
+		readLines(new LineConsumer() {
+			public void accept(long offset, JsonNode record) {
+				String commitId = record.get("commitId").asText();
+				Long latestOffset = index.get(commitId);
+				if (latestOffset == null || latestOffset != offset) {
+					return;
+				}
+				if (ERROR.equals(record.get("status").asText())) {
+					handler.handleException(commitId, new Exception(record.get("error").asText()));
+					counts[2]++;
+				}
+				else {
+					List<Refactoring> refactorings = new ArrayList<Refactoring>();
+					for (JsonNode refactoringNode : record.get("refactorings")) {
+						refactorings.add(readRefactoring(refactoringNode));
+					}
+					handler.handle(commitId, refactorings);
+					counts[0] += refactorings.size();
+				}
+				counts[1]++;
+			}
+		});
+		handler.onFinish(counts[0], counts[1], counts[2]);
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (channel) {
+			lock.release();
+			channel.close();
+		}
+	}
+
+	private interface LineConsumer {
+		void accept(long offset, JsonNode record);
+	}
+
+	/**
+	 * Reads the complete lines of the file.
+	 * @return The length of the file up to the end of the last complete line.
+	 */
+	private long readLines(LineConsumer consumer) throws IOException {
+		long offset = 0;
+		try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			long position = 0;
+			int b;
+			while ((b = input.read()) != -1) {
+				position++;
+				if (b == '\n') {
+					if (line.size() > 0) {
+						consumer.accept(offset, mapper.readTree(line.toByteArray()));
+					}
+					line.reset();
+					offset = position;
+				}
+				else {
+					line.write(b);
+				}
+			}
+		}
+		return offset;
+	}
+
+	private static void writeCodeRanges(ArrayNode node, List<CodeRange> codeRanges) {
+		for (CodeRange codeRange : codeRanges) {
+			ObjectNode codeRangeNode = node.addObject();
+			codeRangeNode.put("filePath", codeRange.getFilePath());
+			codeRangeNode.put("startLine", codeRange.getStartLine());
+			codeRangeNode.put("endLine", codeRange.getEndLine());
+			codeRangeNode.put("startColumn", codeRange.getStartColumn());
+			codeRangeNode.put("endColumn", codeRange.getEndColumn());
+			codeRangeNode.put("codeElementType", codeRange.getCodeElementType().name());
+			codeRangeNode.put("description", codeRange.getDescription());
+			codeRangeNode.put("codeElement", codeRange.getCodeElement());
+		}
+	}
+
+	private static List<CodeRange> readCodeRanges(JsonNode node) {
+		List<CodeRange> codeRanges = new ArrayList<CodeRange>();
+		for (JsonNode codeRangeNode : node) {
+			CodeRange codeRange = new CodeRange(codeRangeNode.get("filePath").asText(),
+					codeRangeNode.get("startLine").asInt(), codeRangeNode.get("endLine").asInt(),
+					codeRangeNode.get("startColumn").asInt(), codeRangeNode.get("endColumn").asInt(),
+					CodeElementType.valueOf(codeRangeNode.get("codeElementType").asText()));
+			codeRange.setDescription(textOrNull(codeRangeNode.get("description")));
+			codeRange.setCodeElement(textOrNull(codeRangeNode.get("codeElement")));
+			codeRanges.add(codeRange);
+		}
+		return codeRanges;
+	}
+
+	private static void writeClasses(ArrayNode node, Set<ImmutablePair<String, String>> classes) {
+		for (ImmutablePair<String, String> pair : classes) {
+			ObjectNode classNode = node.addObject();
+			classNode.put("filePath", pair.getLeft());
+			classNode.put("className", pair.getRight());
+		}
+	}
+
+	private static Set<ImmutablePair<String, String>> readClasses(JsonNode node) {
+		Set<ImmutablePair<String, String>> classes = new LinkedHashSet<ImmutablePair<String, String>>();
+		for (JsonNode classNode : node) {
+			classes.add(new ImmutablePair<String, String>(textOrNull(classNode.get("filePath")), textOrNull(classNode.get("className"))));
+		}
+		return classes;
+	}
+
+	private static String textOrNull(JsonNode node) {
+		return node == null || node.isNull() ? null : node.asText();
+	}
+
+	private static Refactoring readRefactoring(JsonNode node) {
+		return new StoredRefactoring(RefactoringType.valueOf(node.get("type").asText()), node.get("description").asText(),
+				readCodeRanges(node.get("leftSideLocations")), readCodeRanges(node.get("rightSideLocations")),
+				readClasses(node.get("involvedClassesBefore")), readClasses(node.get("involvedClassesAfter")));
+	}
+
+	/**
+	 * A refactoring read back from the store, exposing the information of the detected refactoring
+	 * without the model elements it was computed from.
+	 */
+	private static class StoredRefactoring implements Refactoring {
+		private final RefactoringType refactoringType;
+		private final String description;
+		private final List<CodeRange> leftSide;
+		private final List<CodeRange> rightSide;
+		private final Set<ImmutablePair<String, String>> involvedClassesBefore;
+		private final Set<ImmutablePair<String, String>> involvedClassesAfter;
+
+		public StoredRefactoring(RefactoringType refactoringType, String description, List<CodeRange> leftSide, List<CodeRange> rightSide,
+				Set<ImmutablePair<String, String>> involvedClassesBefore, Set<ImmutablePair<String, String>> involvedClassesAfter) {
+			this.refactoringType = refactoringType;
+			this.description = description;
+			this.leftSide = leftSide;
+			this.rightSide = rightSide;
+			this.involvedClassesBefore = involvedClassesBefore;
+			this.involvedClassesAfter = involvedClassesAfter;
+		}
+
+		public RefactoringType getRefactoringType() {
+			return refactoringType;
+		}
+
+		public String getName() {
+			return refactoringType.getDisplayName();
+		}
+
+		public String toString() {
+			return description;
+		}
+
+		public Set<ImmutablePair<String, String>> getInvolvedClassesBeforeRefactoring() {
+			return involvedClassesBefore;
+		}
+
+		public Set<ImmutablePair<String, String>> getInvolvedClassesAfterRefactoring() {
+			return involvedClassesAfter;
+		}
+
+		public List<CodeRange> leftSide() {
+			return leftSide;
+		}
+
+		public List<CodeRange> rightSide() {
+			return rightSide;
+		}
+	}
+}
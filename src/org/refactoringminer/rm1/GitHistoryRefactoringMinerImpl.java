@@ -2,6 +2,7 @@ package org.refactoringminer.rm1;
 
 import gr.uom.java.xmi.UMLModel;
 import gr.uom.java.xmi.UMLModelASTReader;
+import gr.uom.java.xmi.UMLModelFragment;
 import gr.uom.java.xmi.diff.MoveSourceFolderRefactoring;
 import gr.uom.java.xmi.diff.MovedClassToAnotherSourceFolder;
 import gr.uom.java.xmi.diff.RenamePattern;
@@ -14,10 +15,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.StringWriter;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,27 +32,34 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.kohsuke.github.GHCommit;
 import org.kohsuke.github.GHPullRequest;
 import org.kohsuke.github.GHPullRequestCommitDetail;
@@ -59,13 +70,23 @@ import org.kohsuke.github.GHTreeEntry;
 import org.kohsuke.github.GitHub;
 import org.kohsuke.github.PagedIterable;
 import org.refactoringminer.api.Churn;
+import org.refactoringminer.api.CommitResultStore;
+import org.refactoringminer.api.CommitTimedOutException;
 import org.refactoringminer.api.GitHistoryRefactoringMiner;
 import org.refactoringminer.api.GitService;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringHandler;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.util.BoundedCache;
+import org.refactoringminer.util.DiskContentCache;
+import org.refactoringminer.util.DownloadExecutor;
 import org.refactoringminer.util.GitServiceImpl;
+import org.refactoringminer.util.MergeStrategy;
+import org.refactoringminer.util.RefsWalk;
+import org.refactoringminer.util.RenameDetectionSettings;
+import org.refactoringminer.util.RepositoryDirectoryIndex;
+import org.refactoringminer.util.Watchdog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,6 +97,32 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	Logger logger = LoggerFactory.getLogger(GitHistoryRefactoringMinerImpl.class);
 	private Set<RefactoringType> refactoringTypesToConsider = null;
 	private GitHub gitHub;
+	private int threadCount = 1;
+	private boolean orderedDelivery = true;
+	//the seconds the interrupted analyses are awaited when a parallel run stops early
+	private static final long PENDING_ANALYSIS_WAIT = 30;
+	private static final long DEFAULT_BLOB_CACHE_SIZE = 32 * 1024 * 1024;
+	private BoundedCache<ObjectId, String> blobContentCache = new BoundedCache<ObjectId, String>(DEFAULT_BLOB_CACHE_SIZE, String::length);
+	private RenameDetectionSettings renameDetectionSettings = new RenameDetectionSettings();
+	private CommitResultStore resultStore;
+	private final AtomicLong blobBytesRead = new AtomicLong();
+	private int commitTimeout = 0;
+	private DownloadExecutor downloadExecutor;
+	private DiskContentCache gitHubContentCache;
+	private boolean archiveStreaming = false;
+	private static final Watchdog watchdog = new Watchdog("RefactoringMiner commit watchdog");
+	private static final long DEFAULT_DIRECTORY_INDEX_CACHE_SIZE = 256 * 1024;
+	private BoundedCache<ObjectId, RepositoryDirectoryIndex> directoryIndexCache = new BoundedCache<ObjectId, RepositoryDirectoryIndex>(DEFAULT_DIRECTORY_INDEX_CACHE_SIZE, RepositoryDirectoryIndex::size);
+	private static final long DEFAULT_MODEL_CACHE_SIZE = 4 * 1024 * 1024;
+	private BoundedCache<String, UMLModelFragment> modelFragmentCache = new BoundedCache<String, UMLModelFragment>(DEFAULT_MODEL_CACHE_SIZE, UMLModelFragment::getSourceLength);
+	private CommitPreFilter commitPreFilter;
+	private MergeStrategy mergeStrategy = MergeStrategy.SKIP;
+	private boolean churnComputed = false;
+	private boolean javaFilesChurnOnly = true;
+	private ExecutorService parserExecutor;
+	private long concurrentModelSourceLimit = 0;
+	private ExecutorService modelExecutor;
+	private boolean lazyOperationBodies = false;
 	
 	public GitHistoryRefactoringMinerImpl() {
 		this.setRefactoringTypesToConsider(RefactoringType.ALL);
@@ -87,81 +134,770 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			this.refactoringTypesToConsider.add(type);
 		}
 	}
+
+	/**
+	 * Sets the number of worker threads used to analyze commits in {@code detectAll}, {@code detectBetweenTags},
+	 * {@code detectBetweenCommits}, {@code fetchAndDetectNew} and {@code detectAtPullRequest}. With more than one thread, commits are analyzed
+	 * concurrently, while the {@link RefactoringHandler} is still invoked from the calling thread only.
+	 * 
+	 * @param threadCount The number of worker threads. Values smaller than 2 analyze commits sequentially (default).
+	 */
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Sets the number of threads parsing the files of each analyzed commit, shared by the commits analyzed in parallel.
+	 * The files are still processed in order, so that the detected refactorings do not depend on the number of threads.
+	 * 
+	 * @param parserThreadCount The number of parser threads. Values smaller than 2 parse files sequentially (default).
+	 */
+	public void setParserThreadCount(int parserThreadCount) {
+		if (parserExecutor != null) {
+			parserExecutor.shutdown();
+		}
+		if (parserThreadCount > 1) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			parserExecutor = Executors.newFixedThreadPool(parserThreadCount, r -> {
+				Thread thread = new Thread(r, "RefactoringMiner parser " + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		else {
+			parserExecutor = null;
+		}
+	}
+
+	/**
+	 * Controls whether the models of the two sides of a commit are built concurrently, the model before the commit
+	 * being built on a shared pool while the model after the commit is built by the thread analyzing the commit.
+	 * Since both models are then in memory while they are built, commits whose changed Java files are larger
+	 * than the limit are still built sequentially.
+	 * 
+	 * @param concurrentModelSourceLimit The maximum combined length of the changed Java files of both sides,
+	 *                                   in characters, for which the models are built concurrently, or 0 to always build them sequentially (default).
+	 */
+	public void setConcurrentModelSourceLimit(long concurrentModelSourceLimit) {
+		this.concurrentModelSourceLimit = concurrentModelSourceLimit;
+	}
+
+	/**
+	 * Controls whether the statements of the operation bodies are built only when the operations are compared,
+	 * instead of when the files are parsed. Matched operations whose declarations have the same source text
+	 * are treated as unchanged, without building their bodies or mapping them. The AST of a file is kept only while some
+	 * of its bodies are not built yet, and is released when its model fragment is cached.
+	 * 
+	 * @param lazyOperationBodies Whether the operation bodies are built lazily (default false).
+	 */
+	public void setLazyOperationBodies(boolean lazyOperationBodies) {
+		this.lazyOperationBodies = lazyOperationBodies;
+	}
+
+	private synchronized ExecutorService getModelExecutor() {
+		if (modelExecutor == null) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			//each analyzed commit builds at most one model on the pool
+			modelExecutor = Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "RefactoringMiner model builder " + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return modelExecutor;
+	}
+
+	/**
+	 * Controls the order in which commits analyzed in parallel are reported to the {@link RefactoringHandler}.
+	 * 
+	 * @param orderedDelivery True to report commits in the order of the commit walk (default),
+	 *                        false to report each commit as soon as its analysis completes.
+	 */
+	public void setOrderedDelivery(boolean orderedDelivery) {
+		this.orderedDelivery = orderedDelivery;
+	}
+
+	/**
+	 * Sets the capacity of the cache holding the contents of the Java files read from the git object database.
+	 * In a linear history, the files of a commit are read again as the parent side of the next commit,
+	 * so the cache avoids loading and decoding them twice.
+	 * 
+	 * @param maximumSize The total number of characters kept in the cache. Zero disables the cache.
+	 */
+	public void setBlobCacheSize(long maximumSize) {
+		this.blobContentCache = maximumSize > 0 ? new BoundedCache<ObjectId, String>(maximumSize, String::length) : null;
+	}
+
+	/**
+	 * @return The cache holding the contents of the Java files read from the git object database, or null if disabled.
+	 */
+	public BoundedCache<ObjectId, String> getBlobContentCache() {
+		return blobContentCache;
+	}
+
+	/**
+	 * @return The total number of bytes of file contents read from the git object database.
+	 */
+	public long getBlobBytesRead() {
+		return blobBytesRead.get();
+	}
+
+	/**
+	 * Sets an on-disk cache for the metadata and file contents of the commits analyzed through the GitHub API,
+	 * so that analyzing a commit again does not access GitHub. Since commits are immutable, cached entries never expire,
+	 * but the least recently used ones are evicted when the cache exceeds its maximum size.
+	 * 
+	 * @param gitHubContentCache The cache, or null to always access GitHub (default).
+	 */
+	public void setGitHubContentCache(DiskContentCache gitHubContentCache) {
+		this.gitHubContentCache = gitHubContentCache;
+	}
+
+	public DiskContentCache getGitHubContentCache() {
+		return gitHubContentCache;
+	}
+
+	/**
+	 * Controls how the contents of the files changed by a commit are retrieved when the commit is not found
+	 * in the local repository given to {@code detectAtCommit}.
+	 * 
+	 * @param archiveStreaming True to read the changed files from the commit archives while they are downloaded,
+	 *                         writing nothing to disk, false to download and extract the archives next to the repository folder (default).
+	 *                         Archives already extracted by a previous analysis are used in both cases.
+	 */
+	public void setArchiveStreaming(boolean archiveStreaming) {
+		this.archiveStreaming = archiveStreaming;
+	}
+
+	/**
+	 * Sets the executor downloading the files of the commits analyzed through the GitHub API,
+	 * allowing several miners to share the same download threads and per-host limits.
+	 * By default, each miner creates a {@link DownloadExecutor} with {@link DownloadExecutor#DEFAULT_THREAD_COUNT} threads
+	 * on first use.
+	 */
+	public void setDownloadExecutor(DownloadExecutor downloadExecutor) {
+		this.downloadExecutor = downloadExecutor;
+	}
+
+	private synchronized DownloadExecutor getDownloadExecutor() {
+		if (downloadExecutor == null) {
+			downloadExecutor = new DownloadExecutor();
+		}
+		return downloadExecutor;
+	}
+
+	/**
+	 * Sets the time budget for the analysis of each commit. A commit exceeding the budget is interrupted
+	 * and reported to {@link RefactoringHandler#handleException} with a {@link CommitTimedOutException}.
+	 * 
+	 * @param commitTimeout The time budget in seconds, or 0 for no limit (default).
+	 */
+	public void setCommitTimeout(int commitTimeout) {
+		this.commitTimeout = commitTimeout;
+	}
+
+	/**
+	 * Sets the store where the result of each analyzed commit is saved. Commits already found in the store are skipped,
+	 * so that an interrupted mining run can be resumed; their results can be reported with {@link CommitResultStore#replay}.
+	 * 
+	 * @param resultStore The result store, or null to disable it (default).
+	 */
+	public void setResultStore(CommitResultStore resultStore) {
+		this.resultStore = resultStore;
+	}
+
+	/**
+	 * @return The settings of the rename detection performed when computing the files changed by each commit.
+	 */
+	public RenameDetectionSettings getRenameDetectionSettings() {
+		return renameDetectionSettings;
+	}
+
+	/**
+	 * Sets the capacity of the cache holding, for each commit tree, the directories containing Java files.
+	 * 
+	 * @param maximumSize The total number of directories kept in the cache. Zero disables the cache.
+	 */
+	public void setDirectoryIndexCacheSize(long maximumSize) {
+		this.directoryIndexCache = maximumSize > 0 ? new BoundedCache<ObjectId, RepositoryDirectoryIndex>(maximumSize, RepositoryDirectoryIndex::size) : null;
+	}
+
+	/**
+	 * Sets the capacity of the cache holding the model fragments extracted from the Java files read from the git object database.
+	 * In a linear history, the files parsed for a commit are parsed again as the parent side of the next commit,
+	 * so the cache avoids parsing them twice. A cached fragment is used by a single commit analysis at a time.
+	 * 
+	 * @param maximumSize The total number of source code characters of the files whose model fragments are kept in the cache.
+	 *                    Zero disables the cache.
+	 */
+	public void setModelCacheSize(long maximumSize) {
+		this.modelFragmentCache = maximumSize > 0 ? new BoundedCache<String, UMLModelFragment>(maximumSize, UMLModelFragment::getSourceLength) : null;
+	}
+
+	/**
+	 * @return The cache holding the model fragments extracted from the Java files read from the git object database, or null if disabled.
+	 */
+	public BoundedCache<String, UMLModelFragment> getModelFragmentCache() {
+		return modelFragmentCache;
+	}
+
+	/**
+	 * Sets the filter recognizing the commits that cannot contain refactorings, such as commits only adding Java files
+	 * or only changing comments, which are reported with no refactorings and no model diff without building their models.
+	 * The filter also recognizes the Java files modified in place only in comments, whitespace and import declarations,
+	 * which are left out of the models of both sides of a commit. Renamed files are left out only if identical.
+	 * No filter is set by default, so that every commit is analyzed and has a model diff.
+	 * 
+	 * @param commitPreFilter The filter, such as a new {@link CommitPreFilter}, or null to analyze all commits.
+	 */
+	public void setCommitPreFilter(CommitPreFilter commitPreFilter) {
+		this.commitPreFilter = commitPreFilter;
+	}
+
+	public CommitPreFilter getCommitPreFilter() {
+		return commitPreFilter;
+	}
+
+	/**
+	 * Sets how merge commits are walked and diffed when mining commit ranges and branches.
+	 * 
+	 * @param mergeStrategy The merge strategy. By default, merge commits are skipped.
+	 */
+	public void setMergeStrategy(MergeStrategy mergeStrategy) {
+		this.mergeStrategy = mergeStrategy;
+	}
+
+	public MergeStrategy getMergeStrategy() {
+		return mergeStrategy;
+	}
+
+	/**
+	 * Controls whether the churn of each analyzed commit is computed in the same diff as its changed Java files,
+	 * and reported to {@link RefactoringHandler#handleChurn}. Commits analyzed through the GitHub API have no churn.
+	 * 
+	 * @param churnComputed True to compute the churn of each commit (default false).
+	 */
+	public void setChurnComputed(boolean churnComputed) {
+		this.churnComputed = churnComputed;
+	}
+
+	public boolean isChurnComputed() {
+		return churnComputed;
+	}
+
+	/**
+	 * @param javaFilesChurnOnly Whether the churn of a commit only counts the lines of its Java files (default true).
+	 */
+	public void setJavaFilesChurnOnly(boolean javaFilesChurnOnly) {
+		this.javaFilesChurnOnly = javaFilesChurnOnly;
+	}
+
+	public boolean isJavaFilesChurnOnly() {
+		return javaFilesChurnOnly;
+	}
 	
 	private void detect(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
-		int commitsCount = 0;
-		int errorCommitsCount = 0;
-		int refactoringsCount = 0;
-
+		if (threadCount > 1) {
+			detectInParallel(gitService, repository, handler, i);
+			return;
+		}
 		File metadataFolder = repository.getDirectory();
 		File projectFolder = metadataFolder.getParentFile();
-		String projectName = projectFolder.getName();
-		
-		long time = System.currentTimeMillis();
+		MiningProgress progress = new MiningProgress(projectFolder.getName());
 		while (i.hasNext()) {
 			RevCommit currentCommit = i.next();
+			if (isStored(currentCommit.getId().getName(), progress)) {
+				continue;
+			}
 			try {
 				List<Refactoring> refactoringsAtRevision = detectRefactorings(gitService, repository, handler, projectFolder, currentCommit);
-				refactoringsCount += refactoringsAtRevision.size();
-				
+				storeRefactorings(currentCommit.getId().getName(), refactoringsAtRevision);
+				progress.commitAnalyzed(refactoringsAtRevision.size());
 			} catch (Exception e) {
 				logger.warn(String.format("Ignored revision %s due to error", currentCommit.getId().getName()), e);
 				handler.handleException(currentCommit.getId().getName(),e);
-				errorCommitsCount++;
+				storeError(currentCommit.getId().getName(), e);
+				progress.commitFailed();
 			}
+		}
+		progress.finish(handler);
+	}
 
-			commitsCount++;
-			long time2 = System.currentTimeMillis();
-			if ((time2 - time) > 20000) {
-				time = time2;
-				logger.info(String.format("Processing %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+	private void detectInParallel(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
+		File metadataFolder = repository.getDirectory();
+		File projectFolder = metadataFolder.getParentFile();
+		MiningProgress progress = new MiningProgress(projectFolder.getName());
+		ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+		CompletionService<CommitAnalysis> completionService = new ExecutorCompletionService<CommitAnalysis>(pool);
+		Deque<Future<CommitAnalysis>> pending = new ArrayDeque<Future<CommitAnalysis>>();
+		//bound the number of in-flight commits, so that the model diffs waiting for delivery do not pile up
+		int maxPending = threadCount * 2;
+		try {
+			while (i.hasNext()) {
+				//the RevWalk is not thread-safe, so only the commit id is handed over to the worker
+				final ObjectId commitId = i.next().getId().copy();
+				if (isStored(commitId.getName(), progress)) {
+					continue;
+				}
+				pending.add(completionService.submit(() -> analyzeCommit(gitService, repository, commitId)));
+				if (pending.size() >= maxPending) {
+					deliver(handler, nextAnalysis(pending, completionService), progress);
+				}
+			}
+			while (!pending.isEmpty()) {
+				deliver(handler, nextAnalysis(pending, completionService), progress);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn(String.format("Interrupted while analyzing %s", projectFolder.getName()), e);
+		} finally {
+			pool.shutdownNow();
+			releasePendingAnalyses(pool, pending);
+		}
+		progress.finish(handler);
+	}
+
+	/**
+	 * Releases the model fragments of the analyses left undelivered when the delivery stops early.
+	 * The analyses not started yet are dropped by the pool, the running ones are interrupted and awaited.
+	 */
+	private void releasePendingAnalyses(ExecutorService pool, Deque<Future<CommitAnalysis>> pending) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		try {
+			pool.awaitTermination(PENDING_ANALYSIS_WAIT, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (Future<CommitAnalysis> future : pending) {
+			if (future.isDone() && !future.isCancelled()) {
+				try {
+					releaseModelFragments(future.get().getModelFragments());
+				} catch (InterruptedException | ExecutionException e) {
+					//a done future neither waits nor fails, analyzeCommit reports errors through the CommitAnalysis
+				}
+			}
+		}
+		pending.clear();
+	}
+
+	private Future<CommitAnalysis> nextAnalysis(Deque<Future<CommitAnalysis>> pending, CompletionService<CommitAnalysis> completionService) throws InterruptedException {
+		if (orderedDelivery) {
+			return pending.poll();
+		}
+		Future<CommitAnalysis> completed = completionService.take();
+		pending.remove(completed);
+		return completed;
+	}
+
+	private void deliver(RefactoringHandler handler, Future<CommitAnalysis> future, MiningProgress progress) throws InterruptedException {
+		CommitAnalysis analysis;
+		try {
+			analysis = future.get();
+		} catch (ExecutionException e) {
+			//analyzeCommit never throws, errors are reported through the CommitAnalysis
+			throw new IllegalStateException(e.getCause());
+		}
+		String commitId = analysis.getCommitId();
+		if (analysis.getException() != null) {
+			logger.warn(String.format("Ignored revision %s due to error", commitId), analysis.getException());
+			handler.handleException(commitId, analysis.getException());
+			storeError(commitId, analysis.getException());
+			progress.commitFailed();
+		}
+		else {
+			//a failing handler is reported like a failing analysis, as in the sequential mode
+			try {
+				handler.handle(commitId, analysis.getRefactorings());
+				handler.handleExtraInfo(commitId, analysis.getModelDiff());
+				if (analysis.getChurn() != null) {
+					handler.handleChurn(commitId, analysis.getChurn());
+				}
+				storeRefactorings(commitId, analysis.getRefactorings());
+				progress.commitAnalyzed(analysis.getRefactorings().size());
+			} catch (Exception e) {
+				logger.warn(String.format("Ignored revision %s due to error", commitId), e);
+				handler.handleException(commitId, e);
+				storeError(commitId, e);
+				progress.commitFailed();
+			} finally {
+				releaseModelFragments(analysis.getModelFragments());
+			}
+		}
+	}
+
+	private boolean isStored(String commitId, MiningProgress progress) {
+		if (resultStore != null && resultStore.contains(commitId)) {
+			progress.commitSkipped();
+			return true;
+		}
+		return false;
+	}
+
+	private void storeRefactorings(String commitId, List<Refactoring> refactorings) {
+		if (resultStore != null) {
+			try {
+				resultStore.storeRefactorings(commitId, refactorings);
+			} catch (IOException e) {
+				logger.warn(String.format("Could not store the result of revision %s", commitId), e);
+			}
+		}
+	}
+
+	private void storeError(String commitId, Exception error) {
+		if (resultStore != null) {
+			try {
+				resultStore.storeError(commitId, error);
+			} catch (IOException e) {
+				logger.warn(String.format("Could not store the result of revision %s", commitId), e);
 			}
 		}
+	}
 
-		handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
-		logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+	private CommitAnalysis analyzeCommit(GitService gitService, Repository repository, ObjectId commitId) {
+		try (RevWalk walk = new RevWalk(repository)) {
+			RevCommit currentCommit = walk.parseCommit(commitId);
+			return analyzeCommit(gitService, repository, gitService.leftSideCommits(repository, currentCommit), currentCommit);
+		} catch (Exception e) {
+			return new CommitAnalysis(commitId.getName(), e);
+		}
 	}
 
 	protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, final RefactoringHandler handler, File projectFolder, RevCommit currentCommit) throws Exception{
-		return detectRefactorings(gitService, repository, handler, projectFolder, currentCommit.getParent(0), currentCommit);
+		CommitAnalysis analysis = analyzeCommit(gitService, repository, gitService.leftSideCommits(repository, currentCommit), currentCommit);
+		try {
+			handler.handle(analysis.getCommitId(), analysis.getRefactorings());
+			handler.handleExtraInfo(analysis.getCommitId(), analysis.getModelDiff());
+			if (analysis.getChurn() != null) {
+				handler.handleChurn(analysis.getCommitId(), analysis.getChurn());
+			}
+		} finally {
+			releaseModelFragments(analysis.getModelFragments());
+		}
+		return analysis.getRefactorings();
 	}
 
 	protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, final RefactoringHandler handler, File projectFolder, RevCommit leftSideCommit, RevCommit rightSideCommit) throws Exception {
+		CommitAnalysis analysis = analyzeCommit(gitService, repository, Collections.singletonList(leftSideCommit), rightSideCommit);
+		try {
+			handler.handle(analysis.getCommitId(), analysis.getRefactorings());
+			handler.handleExtraInfo(analysis.getCommitId(), analysis.getModelDiff());
+			if (analysis.getChurn() != null) {
+				handler.handleChurn(analysis.getCommitId(), analysis.getChurn());
+			}
+		} finally {
+			releaseModelFragments(analysis.getModelFragments());
+		}
+		return analysis.getRefactorings();
+	}
+
+	private CommitAnalysis analyzeCommit(GitService gitService, Repository repository, List<RevCommit> leftSideCommits, RevCommit rightSideCommit) throws Exception {
+		if (commitTimeout <= 0) {
+			return analyzeCommitChanges(gitService, repository, leftSideCommits, rightSideCommit);
+		}
+		try (Watchdog.Lease lease = watchdog.watch(commitTimeout, TimeUnit.SECONDS)) {
+			CommitAnalysis analysis;
+			try {
+				analysis = analyzeCommitChanges(gitService, repository, leftSideCommits, rightSideCommit);
+			} catch (Exception e) {
+				if (lease.isExpired()) {
+					throw new CommitTimedOutException(rightSideCommit.getId().getName(), commitTimeout);
+				}
+				throw e;
+			}
+			//the interruption may have been swallowed, leaving the analysis incomplete
+			if (lease.isExpired()) {
+				releaseModelFragments(analysis.getModelFragments());
+				throw new CommitTimedOutException(rightSideCommit.getId().getName(), commitTimeout);
+			}
+			return analysis;
+		}
+	}
+
+	private CommitAnalysis analyzeCommitChanges(GitService gitService, Repository repository, List<RevCommit> leftSideCommits, RevCommit rightSideCommit) throws Exception {
+		if (leftSideCommits.size() == 1) {
+			return analyzeCommitChanges(gitService, repository, leftSideCommits.get(0), rightSideCommit);
+		}
+		//a merge commit diffed against each of its parents, with the model diff of the first parent
+		List<Refactoring> refactoringsAtRevision = new ArrayList<Refactoring>();
+		UMLModelDiff modelDiff = null;
+		Churn churn = null;
+		Map<String, UMLModelFragment> modelFragments = new HashMap<String, UMLModelFragment>();
+		try {
+			for (RevCommit leftSideCommit : leftSideCommits) {
+				CommitAnalysis analysis = analyzeCommitChanges(gitService, repository, leftSideCommit, rightSideCommit);
+				refactoringsAtRevision.addAll(analysis.getRefactorings());
+				modelFragments.putAll(analysis.getModelFragments());
+				if (leftSideCommit == leftSideCommits.get(0)) {
+					modelDiff = analysis.getModelDiff();
+					churn = analysis.getChurn();
+				}
+			}
+		} catch (Exception e) {
+			releaseModelFragments(modelFragments);
+			throw e;
+		}
+		return new CommitAnalysis(rightSideCommit.getId().getName(), refactoringsAtRevision, modelDiff, churn, modelFragments);
+	}
+
+	private CommitAnalysis analyzeCommitChanges(GitService gitService, Repository repository, RevCommit leftSideCommit, RevCommit rightSideCommit) throws Exception {
 		UMLModelDiff modelDiff = null;
 		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
 		String commitId = rightSideCommit.getId().getName();
 		List<String> filePathsBefore = new ArrayList<String>();
 		List<String> filePathsCurrent = new ArrayList<String>();
 		Map<String, String> renamedFilesHint = new HashMap<String, String>();
-		gitService.fileTreeDiff(repository, leftSideCommit, rightSideCommit, filePathsBefore, filePathsCurrent, renamedFilesHint);
+		//the fragments of the models stay leased until the analysis is delivered, since its model diff refers to them
+		Map<String, UMLModelFragment> modelFragmentsInUse = new HashMap<String, UMLModelFragment>();
+		Churn churn = null;
+		if (churnComputed) {
+			Map<String, Churn> fileChurns = new LinkedHashMap<String, Churn>();
+			gitService.fileTreeDiff(repository, leftSideCommit, rightSideCommit, filePathsBefore, filePathsCurrent, renamedFilesHint, fileChurns, javaFilesChurnOnly);
+			churn = Churn.of(fileChurns);
+		}
+		else {
+			gitService.fileTreeDiff(repository, leftSideCommit, rightSideCommit, filePathsBefore, filePathsCurrent, renamedFilesHint);
+		}
+		if (commitPreFilter != null) {
+			CommitPreFilter.Rule rule = commitPreFilter.classify(filePathsBefore, filePathsCurrent);
+			if (rule != null) {
+				logger.debug("Skipped revision {} ({})", commitId, rule);
+				return new CommitAnalysis(commitId, Collections.<Refactoring>emptyList(), null, churn);
+			}
+		}
 
-        Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
-		Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
 		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
 		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
-		try (RevWalk walk = new RevWalk(repository)) {
-			// If no java files changed, there is no refactoring. Also, if there are
-			// only ADD's or only REMOVE's there is no refactoring
-			if (rightSideCommit.getParentCount() > 0) {
-				populateFileContents(repository, leftSideCommit, filePathsBefore, fileContentsBefore, repositoryDirectoriesBefore);
-				populateFileContents(repository, rightSideCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
-				List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
-				UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-				UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
+		Map<String, ObjectId> fileBlobIdsBefore = new LinkedHashMap<String, ObjectId>();
+		Map<String, ObjectId> fileBlobIdsCurrent = new LinkedHashMap<String, ObjectId>();
+		// If no java files changed, there is no refactoring. Also, if there are
+		// only ADD's or only REMOVE's there is no refactoring
+		if (rightSideCommit.getParentCount() > 0) {
+			try (ObjectReader reader = repository.newObjectReader()) {
+				logger.info("Processing {} {} ...", repository.getDirectory().getParent().toString(), leftSideCommit.getName());
+				findBlobs(reader, leftSideCommit, filePathsBefore, fileBlobIdsBefore);
+				logger.info("Processing {} {} ...", repository.getDirectory().getParent().toString(), rightSideCommit.getName());
+				findBlobs(reader, rightSideCommit, filePathsCurrent, fileBlobIdsCurrent);
+				Set<ObjectId> blobIds = new LinkedHashSet<ObjectId>(fileBlobIdsBefore.values());
+				blobIds.addAll(fileBlobIdsCurrent.values());
+				GitServiceImpl.fetchMissingObjects(repository, blobIds);
+				Map<ObjectId, String> blobContents = readBlobs(reader, commitId, blobIds);
+				for (Map.Entry<String, ObjectId> entry : fileBlobIdsBefore.entrySet()) {
+					fileContentsBefore.put(entry.getKey(), blobContents.get(entry.getValue()));
+				}
+				for (Map.Entry<String, ObjectId> entry : fileBlobIdsCurrent.entrySet()) {
+					fileContentsCurrent.put(entry.getKey(), blobContents.get(entry.getValue()));
+				}
+			}
+			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
+			if (commitPreFilter != null) {
+				CommitPreFilter.Rule rule = commitPreFilter.classify(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
+				if (rule != null) {
+					logger.debug("Skipped revision {} ({})", commitId, rule);
+					return new CommitAnalysis(commitId, Collections.<Refactoring>emptyList(), null, churn);
+				}
+			}
+			RepositoryDirectoryIndex directoryIndexCurrent = cachedDirectoryIndex(rightSideCommit.getTree());
+			RepositoryDirectoryIndex directoryIndexBefore = directoryIndex(repository, leftSideCommit.getTree(), directoryIndexCurrent);
+			if (directoryIndexCurrent == null) {
+				directoryIndexCurrent = directoryIndex(repository, rightSideCommit.getTree(), directoryIndexBefore);
+			}
+			Set<String> repositoryDirectoriesBefore = directoryIndexBefore.getDirectories();
+			Set<String> repositoryDirectoriesCurrent = directoryIndexCurrent.getDirectories();
+			try {
+				UMLModel parentUMLModel;
+				UMLModel currentUMLModel;
+				if (concurrentModelSourceLimit > 0 && sourceLength(fileContentsBefore) + sourceLength(fileContentsCurrent) <= concurrentModelSourceLimit) {
+					//the fragments of the parent model are in use only once it is built, so that a cancelled build does not release them
+					Map<String, UMLModelFragment> parentModelFragments = new HashMap<String, UMLModelFragment>();
+					Future<UMLModel> parentModel = getModelExecutor().submit(() -> createModel(fileContentsBefore, repositoryDirectoriesBefore, fileBlobIdsBefore, parentModelFragments));
+					try {
+						currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent, fileBlobIdsCurrent, modelFragmentsInUse);
+						parentUMLModel = parentModel.get();
+						modelFragmentsInUse.putAll(parentModelFragments);
+					} catch (ExecutionException e) {
+						throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+					} finally {
+						parentModel.cancel(true);
+					}
+				}
+				else {
+					parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore, fileBlobIdsBefore, modelFragmentsInUse);
+					currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent, fileBlobIdsCurrent, modelFragmentsInUse);
+				}
 				
 				modelDiff = parentUMLModel.diff(currentUMLModel, renamedFilesHint);
 				refactoringsAtRevision = modelDiff.getRefactorings();
 				refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
 				refactoringsAtRevision = filter(refactoringsAtRevision);
+			}
+			catch (Exception e) {
+				releaseModelFragments(modelFragmentsInUse);
+				throw e;
+			}
+
+		} else {
+			logger.info(String.format("Ignored revision %s with no changes in java files", commitId));
+		}
+		return new CommitAnalysis(commitId, refactoringsAtRevision, modelDiff, churn, modelFragmentsInUse);
+	}
+
+	private static class CommitAnalysis {
+		private final String commitId;
+		private final List<Refactoring> refactorings;
+		private final UMLModelDiff modelDiff;
+		private final Churn churn;
+		private final Map<String, UMLModelFragment> modelFragments;
+		private final Exception exception;
+
+		public CommitAnalysis(String commitId, List<Refactoring> refactorings, UMLModelDiff modelDiff) {
+			this(commitId, refactorings, modelDiff, null);
+		}
+
+		public CommitAnalysis(String commitId, List<Refactoring> refactorings, UMLModelDiff modelDiff, Churn churn) {
+			this(commitId, refactorings, modelDiff, churn, Collections.<String, UMLModelFragment>emptyMap());
+		}
+
+		public CommitAnalysis(String commitId, List<Refactoring> refactorings, UMLModelDiff modelDiff, Churn churn, Map<String, UMLModelFragment> modelFragments) {
+			this.commitId = commitId;
+			this.refactorings = refactorings;
+			this.modelDiff = modelDiff;
+			this.churn = churn;
+			this.modelFragments = modelFragments;
+			this.exception = null;
+		}
+
+		public CommitAnalysis(String commitId, Exception exception) {
+			this.commitId = commitId;
+			this.refactorings = Collections.emptyList();
+			this.modelDiff = null;
+			this.churn = null;
+			this.modelFragments = Collections.emptyMap();
+			this.exception = exception;
+		}
+
+		public String getCommitId() {
+			return commitId;
+		}
+
+		public List<Refactoring> getRefactorings() {
+			return refactorings;
+		}
+
+		public UMLModelDiff getModelDiff() {
+			return modelDiff;
+		}
+
+		public Churn getChurn() {
+			return churn;
+		}
+
+		/**
+		 * @return The cached model fragments the model diff refers to, to be released once the analysis is delivered.
+		 */
+		public Map<String, UMLModelFragment> getModelFragments() {
+			return modelFragments;
+		}
 
-			} else {
-				logger.info(String.format("Ignored revision %s with no changes in java files", commitId));
+		public Exception getException() {
+			return exception;
+		}
+	}
+
+	private class MiningProgress {
+		private final String projectName;
+		private int commitsCount = 0;
+		private int errorCommitsCount = 0;
+		private int refactoringsCount = 0;
+		private int storedCommitsCount = 0;
+		private long time = System.currentTimeMillis();
+
+		public MiningProgress(String projectName) {
+			this.projectName = projectName;
+		}
+
+		public void commitAnalyzed(int refactorings) {
+			refactoringsCount += refactorings;
+			commitProcessed();
+		}
+
+		public void commitFailed() {
+			errorCommitsCount++;
+			commitProcessed();
+		}
+
+		public void commitSkipped() {
+			storedCommitsCount++;
+		}
+
+		private void commitProcessed() {
+			commitsCount++;
+			long time2 = System.currentTimeMillis();
+			if ((time2 - time) > 20000) {
+				time = time2;
+				logger.info(String.format("Processing %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+			}
+		}
+
+		public void finish(RefactoringHandler handler) {
+			handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
+			logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+			if (storedCommitsCount > 0) {
+				logger.info(String.format("Skipped %d commits found in the result store", storedCommitsCount));
+			}
+			logger.info(String.format("Read %d bytes of file contents", blobBytesRead.get()));
+			if (blobContentCache != null) {
+				logger.info(String.format("File contents cache %s", blobContentCache));
+			}
+			if (modelFragmentCache != null) {
+				logger.info(String.format("Model fragment cache %s", modelFragmentCache));
+			}
+			if (commitPreFilter != null) {
+				logger.info(String.format("Commits skipped before model building %s", commitPreFilter));
 			}
-			handler.handle(commitId, refactoringsAtRevision);
-			handler.handleExtraInfo(commitId, modelDiff);
-			walk.dispose();
 		}
-		return refactoringsAtRevision;
+	}
+
+	private UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories,
+			Map<String, ObjectId> fileBlobIds, Map<String, UMLModelFragment> modelFragmentsInUse) throws Exception {
+		if (modelFragmentCache == null) {
+			return createModel(fileContents, repositoryDirectories);
+		}
+		Map<String, UMLModelFragment> reusableFragments = new HashMap<String, UMLModelFragment>();
+		for (String filePath : fileContents.keySet()) {
+			UMLModelFragment fragment = modelFragmentCache.take(modelFragmentKey(filePath, fileBlobIds.get(filePath)));
+			if (fragment != null) {
+				reusableFragments.put(filePath, fragment);
+			}
+		}
+		UMLModelASTReader reader = new UMLModelASTReader(fileContents, repositoryDirectories, reusableFragments, parserExecutor, lazyOperationBodies);
+		for (Map.Entry<String, UMLModelFragment> entry : reader.getModelFragments().entrySet()) {
+			modelFragmentsInUse.put(modelFragmentKey(entry.getKey(), fileBlobIds.get(entry.getKey())), entry.getValue());
+		}
+		return reader.getUmlModel();
+	}
+
+	private static long sourceLength(Map<String, String> fileContents) {
+		long length = 0;
+		for (String contents : fileContents.values()) {
+			length += contents.length();
+		}
+		return length;
+	}
+
+	private void releaseModelFragments(Map<String, UMLModelFragment> modelFragmentsInUse) {
+		if (modelFragmentCache != null) {
+			for (Map.Entry<String, UMLModelFragment> entry : modelFragmentsInUse.entrySet()) {
+				entry.getValue().releaseCompilationUnit();
+				modelFragmentCache.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private static String modelFragmentKey(String filePath, ObjectId blobId) {
+		//the model elements include the file path, so the same blob is parsed again when found at a different path
+		return blobId.getName() + ":" + filePath;
 	}
 
 	public UMLModel getUmlModel(Repository repository, RevCommit commit, List<String> filePaths) throws Exception {
@@ -173,16 +909,24 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 
 	private List<MoveSourceFolderRefactoring> processIdenticalFiles(Map<String, String> fileContentsBefore, Map<String, String> fileContentsCurrent, Map<String, String> renamedFilesHint) {
 		Map<String, String> identicalFiles = new HashMap<String, String>();
+		Set<String> equivalentModifiedFiles = new HashSet<String>();
 		for(String key : fileContentsBefore.keySet()) {
 			if(renamedFilesHint.containsKey(key)) {
 				String renamedFile = renamedFilesHint.get(key);
-				if(fileContentsBefore.get(key).equals(fileContentsCurrent.get(renamedFile))) {
+				String renamedFileContents = fileContentsCurrent.get(renamedFile);
+				if(renamedFileContents != null && fileContentsBefore.get(key).equals(renamedFileContents)) {
 					identicalFiles.put(key, renamedFile);
 				}
 			}
+			else if(commitPreFilter != null && fileContentsCurrent.containsKey(key) &&
+					commitPreFilter.skipFile(fileContentsBefore.get(key), fileContentsCurrent.get(key))) {
+				equivalentModifiedFiles.add(key);
+			}
 		}
 		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
 		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
+		fileContentsBefore.keySet().removeAll(equivalentModifiedFiles);
+		fileContentsCurrent.keySet().removeAll(equivalentModifiedFiles);
 		
 		List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = new ArrayList<MoveSourceFolderRefactoring>();
 		for(String key : identicalFiles.keySet()) {
@@ -220,31 +964,84 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	private void populateFileContents(Repository repository, RevCommit commit,
 			List<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
 		logger.info("Processing {} {} ...", repository.getDirectory().getParent().toString(), commit.getName());
-		RevTree parentTree = commit.getTree();
-		try (TreeWalk treeWalk = new TreeWalk(repository)) {
-			treeWalk.addTree(parentTree);
-			treeWalk.setRecursive(true);
-			while (treeWalk.next()) {
-				String pathString = treeWalk.getPathString();
-				if(filePaths.contains(pathString)) {
-					ObjectId objectId = treeWalk.getObjectId(0);
-					ObjectLoader loader = repository.open(objectId);
-					StringWriter writer = new StringWriter();
-					IOUtils.copy(loader.openStream(), writer);
-					fileContents.put(pathString, writer.toString());
-				}
-				if(pathString.endsWith(".java") && pathString.contains("/")) {
-					String directory = pathString.substring(0, pathString.lastIndexOf("/"));
-					repositoryDirectories.add(directory);
-					//include sub-directories
-					String subDirectory = new String(directory);
-					while(subDirectory.contains("/")) {
-						subDirectory = subDirectory.substring(0, subDirectory.lastIndexOf("/"));
-						repositoryDirectories.add(subDirectory);
-					}
+		try (ObjectReader reader = repository.newObjectReader()) {
+			Map<String, ObjectId> fileBlobIds = new LinkedHashMap<String, ObjectId>();
+			findBlobs(reader, commit, filePaths, fileBlobIds);
+			GitServiceImpl.fetchMissingObjects(repository, fileBlobIds.values());
+			Map<ObjectId, String> blobContents = readBlobs(reader, commit.getName(), fileBlobIds.values());
+			for (Map.Entry<String, ObjectId> entry : fileBlobIds.entrySet()) {
+				fileContents.put(entry.getKey(), blobContents.get(entry.getValue()));
+			}
+		}
+		repositoryDirectories.addAll(directoryIndex(repository, commit.getTree(), null).getDirectories());
+	}
+
+	private void findBlobs(ObjectReader reader, RevCommit commit, List<String> filePaths, Map<String, ObjectId> fileBlobIds) throws IOException {
+		if (!filePaths.isEmpty()) {
+			try (TreeWalk treeWalk = new TreeWalk(reader)) {
+				treeWalk.addTree(commit.getTree());
+				treeWalk.setRecursive(true);
+				treeWalk.setFilter(PathFilterGroup.createFromStrings(filePaths));
+				while (treeWalk.next()) {
+					fileBlobIds.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the contents of the given blobs that are not found in the cache through the given reader,
+	 * reading each distinct blob once.
+	 */
+	private Map<ObjectId, String> readBlobs(ObjectReader reader, String commitId, Collection<ObjectId> blobIds) throws IOException {
+		Map<ObjectId, String> blobContents = new HashMap<ObjectId, String>();
+		List<ObjectId> blobsToRead = new ArrayList<ObjectId>();
+		for (ObjectId blobId : blobIds) {
+			String contents = blobContentCache != null ? blobContentCache.get(blobId) : null;
+			if (contents != null) {
+				blobContents.put(blobId, contents);
+			}
+			else if (!blobContents.containsKey(blobId)) {
+				blobContents.put(blobId, null);
+				blobsToRead.add(blobId);
+			}
+		}
+		long bytesRead = 0;
+		if (!blobsToRead.isEmpty()) {
+			for (ObjectId blobId : blobsToRead) {
+				byte[] bytes = reader.open(blobId, Constants.OBJ_BLOB).getCachedBytes(Integer.MAX_VALUE);
+				//the platform charset is used, as when the contents were copied through a Writer
+				String contents = new String(bytes, Charset.defaultCharset());
+				blobContents.put(blobId, contents);
+				if (blobContentCache != null) {
+					blobContentCache.put(blobId, contents);
 				}
+				bytesRead += bytes.length;
+			}
+		}
+		blobBytesRead.addAndGet(bytesRead);
+		logger.debug("Read {} bytes from {} blobs ({} cached) for {}", bytesRead, blobsToRead.size(), blobContents.size() - blobsToRead.size(), commitId);
+		return blobContents;
+	}
+
+	private RepositoryDirectoryIndex cachedDirectoryIndex(ObjectId treeId) {
+		return directoryIndexCache != null ? directoryIndexCache.get(treeId) : null;
+	}
+
+	/**
+	 * Returns the index of the directories containing Java files in the given tree.
+	 * The index is derived from the index of a related tree (usually the tree of the parent or child commit) when available,
+	 * so that only the files changed between the two trees are visited, and is otherwise built by walking the whole tree.
+	 */
+	private RepositoryDirectoryIndex directoryIndex(Repository repository, ObjectId treeId, RepositoryDirectoryIndex relatedIndex) throws IOException {
+		RepositoryDirectoryIndex index = cachedDirectoryIndex(treeId);
+		if (index == null) {
+			index = relatedIndex != null ? relatedIndex.derive(repository, treeId) : RepositoryDirectoryIndex.build(repository, treeId);
+			if (directoryIndexCache != null) {
+				directoryIndexCache.put(index.getTreeId(), index);
 			}
 		}
+		return index;
 	}
 
 	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, File projectFolder, String cloneURL, String currentCommitId) {
@@ -258,19 +1055,30 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			Map<String, String> renamedFilesHint = changedFileInfo.getRenamedFilesHint();
 			File currentFolder = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + currentCommitId);
 			File parentFolder = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + parentCommitId);
-			if (!currentFolder.exists()) {	
-				downloadAndExtractZipFile(projectFolder, cloneURL, currentCommitId);
-			}
-			if (!parentFolder.exists()) {	
-				downloadAndExtractZipFile(projectFolder, cloneURL, parentCommitId);
-			}
 			Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
 			Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
 			Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
 			Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
-			if (currentFolder.exists() && parentFolder.exists()) {
-				populateFileContents(currentFolder, filesCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
-				populateFileContents(parentFolder, filesBefore, fileContentsBefore, repositoryDirectoriesBefore);
+			boolean fileContentsFound = false;
+			if (archiveStreaming && !(currentFolder.exists() && parentFolder.exists())) {
+				populateFileContentsFromArchive(cloneURL, currentCommitId, filesCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
+				populateFileContentsFromArchive(cloneURL, parentCommitId, filesBefore, fileContentsBefore, repositoryDirectoriesBefore);
+				fileContentsFound = true;
+			}
+			else {
+				if (!currentFolder.exists()) {	
+					downloadAndExtractZipFile(projectFolder, cloneURL, currentCommitId);
+				}
+				if (!parentFolder.exists()) {	
+					downloadAndExtractZipFile(projectFolder, cloneURL, parentCommitId);
+				}
+				if (currentFolder.exists() && parentFolder.exists()) {
+					populateFileContents(currentFolder, filesCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
+					populateFileContents(parentFolder, filesBefore, fileContentsBefore, repositoryDirectoriesBefore);
+					fileContentsFound = true;
+				}
+			}
+			if (fileContentsFound) {
 				List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint); 
 				UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
 				UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
@@ -305,6 +1113,57 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		}
 	}
 
+	/**
+	 * Reads the given files from the archive of a commit while it is downloaded, without writing the archive to disk.
+	 * The download stops as soon as all files are read.
+	 */
+	private void populateFileContentsFromArchive(String cloneURL, String commitId, List<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories) throws IOException {
+		if (filePaths.isEmpty()) {
+			return;
+		}
+		String downloadLink = extractDownloadLink(cloneURL, commitId);
+		logger.info(String.format("Streaming archive %s", downloadLink));
+		Map<String, String> archiveFileContents;
+		try (InputStream archive = new URL(downloadLink).openStream()) {
+			archiveFileContents = readArchiveFiles(archive, filePaths);
+		}
+		for(String path : filePaths) {
+			String contents = archiveFileContents.get(path);
+			if (contents == null) {
+				throw new FileNotFoundException(String.format("%s not found in archive %s", path, downloadLink));
+			}
+			fileContents.put(path, contents);
+			String directory = new String(path);
+			while(directory.contains("/")) {
+				directory = directory.substring(0, directory.lastIndexOf("/"));
+				repositoryDirectories.add(directory);
+			}
+		}
+	}
+
+	/**
+	 * Reads the given files from a zip archive whose entries are all contained in a single top-level folder,
+	 * as the archives of commits downloaded from GitHub and Bitbucket.
+	 * 
+	 * @return The contents of the files found, by path relative to the top-level folder.
+	 */
+	static Map<String, String> readArchiveFiles(InputStream archive, Collection<String> filePaths) throws IOException {
+		Set<String> remainingFilePaths = new HashSet<String>(filePaths);
+		Map<String, String> fileContents = new HashMap<String, String>();
+		ZipInputStream zipInputStream = new ZipInputStream(archive);
+		ZipEntry entry;
+		while (!remainingFilePaths.isEmpty() && (entry = zipInputStream.getNextEntry()) != null) {
+			String entryName = entry.getName();
+			if (!entry.isDirectory() && entryName.contains("/")) {
+				String path = entryName.substring(entryName.indexOf("/") + 1);
+				if (remainingFilePaths.remove(path)) {
+					fileContents.put(path, IOUtils.toString(zipInputStream, Charset.defaultCharset()));
+				}
+			}
+		}
+		return fileContents;
+	}
+
 	private void downloadAndExtractZipFile(File projectFolder, String cloneURL, String commitId)
 			throws IOException {
 		String downloadLink = extractDownloadLink(cloneURL, commitId);
@@ -452,12 +1311,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	
 	@Override
 	public void detectAll(Repository repository, String branch, final RefactoringHandler handler) throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
+		GitService gitService = createGitService(handler);
 		RevWalk walk = gitService.createAllRevsWalk(repository, branch);
 		try {
 			detect(gitService, repository, handler, walk.iterator());
@@ -466,14 +1320,30 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		}
 	}
 
+	@Override
+	public void detectAllRefs(Repository repository, Collection<String> refs, final RefactoringHandler handler) throws Exception {
+		GitServiceImpl gitService = createGitService(handler);
+		try (RefsWalk walk = gitService.createRefsWalk(repository, refs)) {
+			Iterator<RevCommit> i = new Iterator<RevCommit>() {
+				@Override
+				public boolean hasNext() {
+					return walk.hasNext();
+				}
+
+				@Override
+				public RevCommit next() {
+					RevCommit commit = walk.next();
+					handler.handleRefs(commit.getId().getName(), walk.getRefs());
+					return commit;
+				}
+			};
+			detect(gitService, repository, handler, i);
+		}
+	}
+
 	@Override
 	public void fetchAndDetectNew(Repository repository, final RefactoringHandler handler) throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
+		GitService gitService = createGitService(handler);
 		RevWalk walk = gitService.fetchAndCreateNewRevsWalk(repository);
 		try {
 			detect(gitService, repository, handler, walk.iterator());
@@ -482,8 +1352,27 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		}
 	}
 
+	private GitServiceImpl createGitService() {
+		GitServiceImpl gitService = new GitServiceImpl();
+		gitService.setRenameDetectionSettings(renameDetectionSettings);
+		gitService.setMergeStrategy(mergeStrategy);
+		return gitService;
+	}
+
+	private GitServiceImpl createGitService(final RefactoringHandler handler) {
+		GitServiceImpl gitService = new GitServiceImpl() {
+			@Override
+			public boolean isCommitAnalyzed(String sha1) {
+				return handler.skipCommit(sha1);
+			}
+		};
+		gitService.setRenameDetectionSettings(renameDetectionSettings);
+		gitService.setMergeStrategy(mergeStrategy);
+		return gitService;
+	}
+
 	protected UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
-		return new UMLModelASTReader(fileContents, repositoryDirectories).getUmlModel();
+		return new UMLModelASTReader(fileContents, repositoryDirectories, Collections.<String, UMLModelFragment>emptyMap(), parserExecutor, lazyOperationBodies).getUmlModel();
 	}
 
 	private static final String systemFileSeparator = Matcher.quoteReplacement(File.separator);
@@ -493,7 +1382,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		String cloneURL = repository.getConfig().getString("remote", "origin", "url");
 		File metadataFolder = repository.getDirectory();
 		File projectFolder = metadataFolder.getParentFile();
-		GitService gitService = new GitServiceImpl();
+		GitService gitService = createGitService();
 		RevWalk walk = new RevWalk(repository);
 		try {
 			RevCommit commit = walk.parseCommit(repository.resolve(commitId));
@@ -508,6 +1397,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			this.detectRefactorings(handler, projectFolder, cloneURL, commitId);
 		} catch (RefactoringMinerTimedOutException e) {
 			logger.warn(String.format("Ignored revision %s due to timeout", commitId), e);
+			handler.handleException(commitId, e);
 		} catch (Exception e) {
 			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
 			handler.handleException(commitId, e);
@@ -543,12 +1433,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	@Override
 	public void detectBetweenTags(Repository repository, String startTag, String endTag, RefactoringHandler handler)
 			throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
+		GitService gitService = createGitService(handler);
 		
 		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenTags(repository, startTag, endTag);
 		detect(gitService, repository, handler, walk.iterator());
@@ -557,12 +1442,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	@Override
 	public void detectBetweenCommits(Repository repository, String startCommitId, String endCommitId,
 			RefactoringHandler handler) throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
+		GitService gitService = createGitService(handler);
 		
 		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenCommits(repository, startCommitId, endCommitId);
 		detect(gitService, repository, handler, walk.iterator());
@@ -570,7 +1450,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 
 	@Override
 	public Churn churnAtCommit(Repository repository, String commitId, RefactoringHandler handler) {
-		GitService gitService = new GitServiceImpl();
+		GitService gitService = createGitService();
 		RevWalk walk = new RevWalk(repository);
 		try {
 			RevCommit commit = walk.parseCommit(repository.resolve(commitId));
@@ -613,131 +1493,320 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 	}
 
 	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, String gitURL, String currentCommitId) {
-		UMLModelDiff modelDiff = null;
-		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
+		CommitAnalysis analysis = analyzeGitHubCommit(gitURL, currentCommitId, null, null, 0);
+		reportGitHubCommit(handler, analysis);
+		return analysis.getRefactorings();
+	}
+
+	private void reportGitHubCommit(RefactoringHandler handler, CommitAnalysis analysis) {
+		String commitId = analysis.getCommitId();
+		if (analysis.getException() instanceof RefactoringMinerTimedOutException) {
+			logger.warn(String.format("Ignored revision %s due to timeout", commitId), analysis.getException());
+			handler.handleException(commitId, analysis.getException());
+		}
+		else if (analysis.getException() != null) {
+			logger.warn(String.format("Ignored revision %s due to error", commitId), analysis.getException());
+			handler.handleException(commitId, analysis.getException());
+		}
+		handler.handle(commitId, analysis.getRefactorings());
+		handler.handleExtraInfo(commitId, analysis.getModelDiff());
+	}
+
+	/**
+	 * Analyzes a commit through the GitHub API.
+	 * 
+	 * @param commitInfo The metadata of the commit, or null to retrieve it.
+	 * @param sharedDownloads The downloads shared with the other commits analyzed together, keyed by commit, or null.
+	 * @param timeout The time budget in seconds, or 0 for no limit.
+	 */
+	private CommitAnalysis analyzeGitHubCommit(String gitURL, String currentCommitId, GitHubCommitInfo commitInfo, Map<String, Map<String, Future<String>>> sharedDownloads, int timeout) {
+		Watchdog.Lease lease = timeout > 0 ? watchdog.watch(timeout, TimeUnit.SECONDS) : null;
 		try {
-			Set<String> repositoryDirectoriesBefore = ConcurrentHashMap.newKeySet();
-			Set<String> repositoryDirectoriesCurrent = ConcurrentHashMap.newKeySet();
-			Map<String, String> fileContentsBefore = new ConcurrentHashMap<String, String>();
-			Map<String, String> fileContentsCurrent = new ConcurrentHashMap<String, String>();
-			Map<String, String> renamedFilesHint = new ConcurrentHashMap<String, String>();
-			populateWithGitHubAPI(gitURL, currentCommitId, fileContentsBefore, fileContentsCurrent, renamedFilesHint, repositoryDirectoriesBefore, repositoryDirectoriesCurrent);
-			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
-			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
-			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-			//  Diff between currentModel e parentModel
-			modelDiff = parentUMLModel.diff(currentUMLModel, renamedFilesHint);
-			refactoringsAtRevision = modelDiff.getRefactorings();
-			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
-			refactoringsAtRevision = filter(refactoringsAtRevision);
-		}
-		catch(RefactoringMinerTimedOutException e) {
-			logger.warn(String.format("Ignored revision %s due to timeout", currentCommitId), e);
-			handler.handleException(currentCommitId, e);
+			CommitAnalysis analysis = analyzeGitHubCommitChanges(gitURL, currentCommitId, commitInfo, sharedDownloads);
+			//the interruption may have been swallowed, leaving the analysis incomplete
+			if (lease != null && lease.isExpired()) {
+				return new CommitAnalysis(currentCommitId, new CommitTimedOutException(currentCommitId, timeout));
+			}
+			return analysis;
 		}
 		catch (Exception e) {
-			logger.warn(String.format("Ignored revision %s due to error", currentCommitId), e);
-			handler.handleException(currentCommitId, e);
+			if (lease != null && lease.isExpired()) {
+				return new CommitAnalysis(currentCommitId, new CommitTimedOutException(currentCommitId, timeout));
+			}
+			return new CommitAnalysis(currentCommitId, e);
+		}
+		finally {
+			if (lease != null) {
+				lease.close();
+			}
 		}
-		handler.handle(currentCommitId, refactoringsAtRevision);
-		handler.handleExtraInfo(currentCommitId, modelDiff);
-		return refactoringsAtRevision;
 	}
 
-	private void populateWithGitHubAPI(String cloneURL, String currentCommitId,
-			Map<String, String> filesBefore, Map<String, String> filesCurrent, Map<String, String> renamedFilesHint,
-			Set<String> repositoryDirectoriesBefore, Set<String> repositoryDirectoriesCurrent) throws IOException, InterruptedException {
-		logger.info("Processing {} {} ...", cloneURL, currentCommitId);
+	private CommitAnalysis analyzeGitHubCommitChanges(String gitURL, String currentCommitId, GitHubCommitInfo commitInfo, Map<String, Map<String, Future<String>>> sharedDownloads) throws Exception {
+		Set<String> repositoryDirectoriesBefore = ConcurrentHashMap.newKeySet();
+		Set<String> repositoryDirectoriesCurrent = ConcurrentHashMap.newKeySet();
+		Map<String, String> fileContentsBefore = new ConcurrentHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new ConcurrentHashMap<String, String>();
+		Map<String, String> renamedFilesHint = new ConcurrentHashMap<String, String>();
+		if (commitInfo == null) {
+			commitInfo = gitHubCommitInfo(gitURL, currentCommitId);
+		}
+		populateWithGitHubAPI(gitURL, currentCommitId, commitInfo, sharedDownloads, fileContentsBefore, fileContentsCurrent, renamedFilesHint, repositoryDirectoriesBefore, repositoryDirectoriesCurrent);
+		List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
+		UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
+		UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
+		//  Diff between currentModel e parentModel
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, renamedFilesHint);
+		List<Refactoring> refactoringsAtRevision = modelDiff.getRefactorings();
+		refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
+		refactoringsAtRevision = filter(refactoringsAtRevision);
+		return new CommitAnalysis(currentCommitId, refactoringsAtRevision, modelDiff);
+	}
+
+	private static String gitHubCommitCacheKey(String repositoryName, String commitId) {
+		return "commit:" + repositoryName + ":" + commitId;
+	}
+
+	/**
+	 * Returns the metadata of the given commit from the GitHub content cache, or retrieves it through the GitHub API.
+	 */
+	private GitHubCommitInfo gitHubCommitInfo(String cloneURL, String currentCommitId) throws IOException {
+		if (gitHubContentCache != null) {
+			String cachedCommitInfo = gitHubContentCache.get(gitHubCommitCacheKey(extractRepositoryName(cloneURL), currentCommitId));
+			if (cachedCommitInfo != null) {
+				return new ObjectMapper().readValue(cachedCommitInfo, GitHubCommitInfo.class);
+			}
+		}
 		GHRepository repository = getGitHubRepository(cloneURL);
 		List<GHCommit.File> commitFiles = new ArrayList<>();
 		GHCommit currentCommit = new GHRepositoryWrapper(repository).getCommit(currentCommitId, commitFiles);
-		final String parentCommitId = currentCommit.getParents().get(0).getSHA1();
-		Set<String> deletedAndRenamedFileParentDirectories = ConcurrentHashMap.newKeySet();
-		ExecutorService pool = Executors.newFixedThreadPool(commitFiles.size());
+		List<GitHubFileInfo> files = new ArrayList<GitHubFileInfo>();
 		for (GHCommit.File commitFile : commitFiles) {
-			String fileName = commitFile.getFileName();
 			if (commitFile.getFileName().endsWith(".java")) {
-				if (commitFile.getStatus().equals("modified")) {
-					Runnable r = () -> {
-						try {
-							URL currentRawURL = commitFile.getRawUrl();
-							InputStream currentRawFileInputStream = currentRawURL.openStream();
-							String currentRawFile = IOUtils.toString(currentRawFileInputStream);
-							String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId);
-							InputStream parentRawFileInputStream = new URL(rawURLInParentCommit).openStream();
-							String parentRawFile = IOUtils.toString(parentRawFileInputStream);
-							filesBefore.put(fileName, parentRawFile);
-							filesCurrent.put(fileName, currentRawFile);
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-				else if (commitFile.getStatus().equals("added")) {
-					Runnable r = () -> {
-						try {
-							URL currentRawURL = commitFile.getRawUrl();
-							InputStream currentRawFileInputStream = currentRawURL.openStream();
-							String currentRawFile = IOUtils.toString(currentRawFileInputStream);
-							filesCurrent.put(fileName, currentRawFile);
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-				else if (commitFile.getStatus().equals("removed")) {
-					Runnable r = () -> {
-						try {
-							URL rawURL = commitFile.getRawUrl();
-							InputStream rawFileInputStream = rawURL.openStream();
-							String rawFile = IOUtils.toString(rawFileInputStream);
-							filesBefore.put(fileName, rawFile);
-							if(fileName.contains("/")) {
-								deletedAndRenamedFileParentDirectories.add(fileName.substring(0, fileName.lastIndexOf("/")));
-							}
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-				else if (commitFile.getStatus().equals("renamed")) {
-					Runnable r = () -> {
-						try {
-							String previousFilename = commitFile.getPreviousFilename();
-							URL currentRawURL = commitFile.getRawUrl();
-							InputStream currentRawFileInputStream = currentRawURL.openStream();
-							String currentRawFile = IOUtils.toString(currentRawFileInputStream);
-							String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId).replace(fileName, previousFilename);
-							InputStream parentRawFileInputStream = new URL(rawURLInParentCommit).openStream();
-							String parentRawFile = IOUtils.toString(parentRawFileInputStream);
-							filesBefore.put(previousFilename, parentRawFile);
-							filesCurrent.put(fileName, currentRawFile);
-							renamedFilesHint.put(previousFilename, fileName);
-							if(previousFilename.contains("/")) {
-								deletedAndRenamedFileParentDirectories.add(previousFilename.substring(0, previousFilename.lastIndexOf("/")));
-							}
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-			}
-		}
-		pool.shutdown();
-		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-		repositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent, deletedAndRenamedFileParentDirectories);
-		repositoryDirectoriesCurrent.addAll(deletedAndRenamedFileParentDirectories);
+				files.add(new GitHubFileInfo(commitFile.getStatus(), commitFile.getPreviousFilename(), commitFile.getFileName(), commitFile.getRawUrl().toString()));
+			}
+		}
+		GitHubCommitInfo commitInfo = new GitHubCommitInfo(currentCommit.getParents().get(0).getSHA1(), files);
+		commitInfo.commit = currentCommit;
+		return commitInfo;
+	}
+
+	private void populateWithGitHubAPI(String cloneURL, String currentCommitId, GitHubCommitInfo commitInfo, Map<String, Map<String, Future<String>>> sharedDownloads,
+			Map<String, String> filesBefore, Map<String, String> filesCurrent, Map<String, String> renamedFilesHint,
+			Set<String> repositoryDirectoriesBefore, Set<String> repositoryDirectoriesCurrent) throws IOException, InterruptedException {
+		logger.info("Processing {} {} ...", cloneURL, currentCommitId);
+		String repositoryName = extractRepositoryName(cloneURL);
+		final String parentCommitId = commitInfo.getParentCommitId();
+		Set<String> deletedAndRenamedFileParentDirectories = new HashSet<String>();
+		DownloadExecutor downloadExecutor = getDownloadExecutor();
+		List<FileDownload> downloads = new ArrayList<FileDownload>();
+		boolean complete = true;
+		try {
+			for (GitHubFileInfo commitFile : commitInfo.getFiles()) {
+				String fileName = commitFile.getFileName();
+				String status = commitFile.getStatus();
+				URL currentRawURL = new URL(commitFile.getRawUrl());
+				if (status.equals("modified")) {
+					String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId);
+					downloads.add(new FileDownload(status, fileName, fileName,
+							downloadRawFile(downloadExecutor, sharedDownloads, repositoryName, parentCommitId, fileName, new URL(rawURLInParentCommit)),
+							downloadRawFile(downloadExecutor, sharedDownloads, repositoryName, currentCommitId, fileName, currentRawURL)));
+				}
+				else if (status.equals("added")) {
+					downloads.add(new FileDownload(status, null, fileName, null,
+							downloadRawFile(downloadExecutor, sharedDownloads, repositoryName, currentCommitId, fileName, currentRawURL)));
+				}
+				else if (status.equals("removed")) {
+					//the contents of a removed file are those of the parent commit
+					downloads.add(new FileDownload(status, fileName, null,
+							downloadRawFile(downloadExecutor, sharedDownloads, repositoryName, parentCommitId, fileName, currentRawURL), null));
+				}
+				else if (status.equals("renamed")) {
+					String previousFilename = commitFile.getPreviousFileName();
+					String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId).replace(fileName, previousFilename);
+					downloads.add(new FileDownload(status, previousFilename, fileName,
+							downloadRawFile(downloadExecutor, sharedDownloads, repositoryName, parentCommitId, previousFilename, new URL(rawURLInParentCommit)),
+							downloadRawFile(downloadExecutor, sharedDownloads, repositoryName, currentCommitId, fileName, currentRawURL)));
+				}
+			}
+			for (FileDownload download : downloads) {
+				String parentRawFile;
+				String currentRawFile;
+				try {
+					parentRawFile = download.parentContents != null ? download.parentContents.get() : null;
+					currentRawFile = download.currentContents != null ? download.currentContents.get() : null;
+				}
+				catch (ExecutionException e) {
+					logger.warn(String.format("Could not download %s", download.fileName != null ? download.fileName : download.previousFileName), e.getCause());
+					complete = false;
+					continue;
+				}
+				if (parentRawFile != null) {
+					filesBefore.put(download.previousFileName, parentRawFile);
+				}
+				if (currentRawFile != null) {
+					filesCurrent.put(download.fileName, currentRawFile);
+				}
+				if (download.status.equals("renamed")) {
+					renamedFilesHint.put(download.previousFileName, download.fileName);
+				}
+				if ((download.status.equals("removed") || download.status.equals("renamed")) && download.previousFileName.contains("/")) {
+					deletedAndRenamedFileParentDirectories.add(download.previousFileName.substring(0, download.previousFileName.lastIndexOf("/")));
+				}
+			}
+		}
+		finally {
+			//shared downloads may still be awaited by other commits
+			if (sharedDownloads == null) {
+				for (FileDownload download : downloads) {
+					download.cancel();
+				}
+			}
+		}
+		if (commitInfo.getRepositoryDirectories() != null) {
+			repositoryDirectoriesCurrent.addAll(commitInfo.getRepositoryDirectories());
+		}
+		else {
+			repositoryDirectories(commitInfo.commit.getTree(), "", repositoryDirectoriesCurrent, deletedAndRenamedFileParentDirectories);
+			repositoryDirectoriesCurrent.addAll(deletedAndRenamedFileParentDirectories);
+			//the directories depend on the files downloaded, so the commit is cached only if all files were downloaded
+			if (gitHubContentCache != null && complete) {
+				commitInfo.setRepositoryDirectories(new ArrayList<String>(repositoryDirectoriesCurrent));
+				gitHubContentCache.put(gitHubCommitCacheKey(repositoryName, currentCommitId), new ObjectMapper().writeValueAsString(commitInfo));
+			}
+		}
 		//allRepositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent);
 		//GHCommit parentCommit = repository.getCommit(parentCommitId);
 		//allRepositoryDirectories(parentCommit.getTree(), "", repositoryDirectoriesBefore);
+		if (gitHubContentCache != null) {
+			logger.debug("GitHub content cache {}", gitHubContentCache);
+		}
+	}
+
+	private Future<String> downloadRawFile(DownloadExecutor downloadExecutor, Map<String, Map<String, Future<String>>> sharedDownloads,
+			String repositoryName, String commitId, String path, URL rawURL) throws InterruptedException {
+		String key = repositoryName + ":" + commitId + ":" + path;
+		Map<String, Future<String>> commitDownloads = null;
+		if (sharedDownloads != null) {
+			commitDownloads = sharedDownloads.computeIfAbsent(commitId, id -> new ConcurrentHashMap<String, Future<String>>());
+			Future<String> sharedDownload = commitDownloads.get(key);
+			if (sharedDownload != null) {
+				return sharedDownload;
+			}
+		}
+		Future<String> download;
+		if (gitHubContentCache != null) {
+			download = downloadExecutor.download(rawURL, gitHubContentCache, "raw:" + key);
+		}
+		else {
+			download = downloadExecutor.download(rawURL);
+		}
+		if (commitDownloads != null) {
+			Future<String> sharedDownload = commitDownloads.putIfAbsent(key, download);
+			if (sharedDownload != null) {
+				download.cancel(true);
+				return sharedDownload;
+			}
+		}
+		return download;
+	}
+
+	/**
+	 * The metadata of a commit retrieved through the GitHub API, as stored in the GitHub content cache.
+	 */
+	public static class GitHubCommitInfo {
+		private String parentCommitId;
+		private List<GitHubFileInfo> files;
+		private List<String> repositoryDirectories;
+		//not cached, only available when the metadata was retrieved through the GitHub API
+		private GHCommit commit;
+
+		public GitHubCommitInfo() {
+			
+		}
+
+		public GitHubCommitInfo(String parentCommitId, List<GitHubFileInfo> files) {
+			this.parentCommitId = parentCommitId;
+			this.files = files;
+		}
+
+		public String getParentCommitId() {
+			return parentCommitId;
+		}
+
+		public List<GitHubFileInfo> getFiles() {
+			return files;
+		}
+
+		public List<String> getRepositoryDirectories() {
+			return repositoryDirectories;
+		}
+
+		public void setRepositoryDirectories(List<String> repositoryDirectories) {
+			this.repositoryDirectories = repositoryDirectories;
+		}
+	}
+
+	public static class GitHubFileInfo {
+		private String status;
+		private String previousFileName;
+		private String fileName;
+		private String rawUrl;
+
+		public GitHubFileInfo() {
+			
+		}
+
+		public GitHubFileInfo(String status, String previousFileName, String fileName, String rawUrl) {
+			this.status = status;
+			this.previousFileName = previousFileName;
+			this.fileName = fileName;
+			this.rawUrl = rawUrl;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		public String getPreviousFileName() {
+			return previousFileName;
+		}
+
+		public String getFileName() {
+			return fileName;
+		}
+
+		public String getRawUrl() {
+			return rawUrl;
+		}
+	}
+
+	/**
+	 * The pending downloads of the contents of a Java file changed by a commit, before and after the commit.
+	 */
+	private static class FileDownload {
+		private final String status;
+		private final String previousFileName;
+		private final String fileName;
+		private final Future<String> parentContents;
+		private final Future<String> currentContents;
+
+		private FileDownload(String status, String previousFileName, String fileName, Future<String> parentContents, Future<String> currentContents) {
+			this.status = status;
+			this.previousFileName = previousFileName;
+			this.fileName = fileName;
+			this.parentContents = parentContents;
+			this.currentContents = currentContents;
+		}
+
+		private void cancel() {
+			if (parentContents != null) {
+				parentContents.cancel(true);
+			}
+			if (currentContents != null) {
+				currentContents.cancel(true);
+			}
+		}
 	}
 
 	private void repositoryDirectories(GHTree tree, String pathFromRoot, Set<String> repositoryDirectories, Set<String> targetPaths) throws IOException {
@@ -800,8 +1869,67 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		GHRepository repository = getGitHubRepository(cloneURL);
 		GHPullRequest pullRequest = repository.getPullRequest(pullRequestId);
 		PagedIterable<GHPullRequestCommitDetail> commits = pullRequest.listCommits();
+		List<String> commitIds = new ArrayList<String>();
 		for(GHPullRequestCommitDetail commit : commits) {
-			detectAtCommit(cloneURL, commit.getSha(), handler, timeout);
+			commitIds.add(commit.getSha());
+		}
+		int poolSize = Math.max(threadCount, 1);
+		ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+		try {
+			//the metadata of all commits is requested up front, before any analysis is queued,
+			//so that an analysis waiting for the metadata of its commit never waits for a task behind it in the queue
+			List<Future<GitHubCommitInfo>> commitInfos = new ArrayList<Future<GitHubCommitInfo>>();
+			for (String commitId : commitIds) {
+				commitInfos.add(pool.submit(() -> gitHubCommitInfo(cloneURL, commitId)));
+			}
+			//the contents of a file after a commit are reused as its contents before the next commit of the pull request,
+			//and released once that commit is reported
+			Map<String, Map<String, Future<String>>> sharedDownloads = new ConcurrentHashMap<String, Map<String, Future<String>>>();
+			int reported = 0;
+			Deque<Future<CommitAnalysis>> pending = new ArrayDeque<Future<CommitAnalysis>>();
+			//bound the number of in-flight commits, so that the model diffs waiting for delivery do not pile up
+			int maxPending = poolSize * 2;
+			for (int i = 0; i < commitIds.size(); i++) {
+				String commitId = commitIds.get(i);
+				Future<GitHubCommitInfo> commitInfo = commitInfos.get(i);
+				pending.add(pool.submit(() -> {
+					try {
+						return analyzeGitHubCommit(cloneURL, commitId, commitInfo.get(), sharedDownloads, timeout);
+					} catch (ExecutionException e) {
+						return new CommitAnalysis(commitId, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+					}
+				}));
+				if (pending.size() >= maxPending) {
+					reportGitHubCommit(handler, nextGitHubCommitAnalysis(pending));
+					releaseSharedDownloads(sharedDownloads, commitIds.subList(reported++, commitIds.size()));
+				}
+			}
+			while (!pending.isEmpty()) {
+				reportGitHubCommit(handler, nextGitHubCommitAnalysis(pending));
+				releaseSharedDownloads(sharedDownloads, commitIds.subList(reported++, commitIds.size()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn(String.format("Interrupted while analyzing pull request %d of %s", pullRequestId, cloneURL), e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Releases the downloads of the commits other than the given ones. The commits are reported in order,
+	 * so the downloads of the earlier commits and of the base of the pull request are no longer needed.
+	 */
+	private static void releaseSharedDownloads(Map<String, Map<String, Future<String>>> sharedDownloads, List<String> remainingCommitIds) {
+		sharedDownloads.keySet().retainAll(remainingCommitIds);
+	}
+
+	private CommitAnalysis nextGitHubCommitAnalysis(Deque<Future<CommitAnalysis>> pending) throws InterruptedException {
+		try {
+			return pending.poll().get();
+		} catch (ExecutionException e) {
+			//analyzeGitHubCommit never throws, errors are reported through the CommitAnalysis
+			throw new IllegalStateException(e.getCause());
 		}
 	}
 
@@ -875,7 +2003,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 		String cloneURL = repository.getConfig().getString("remote", "origin", "url");
 		File metadataFolder = repository.getDirectory();
 		File projectFolder = metadataFolder.getParentFile();
-		GitService gitService = new GitServiceImpl();
+		GitService gitService = createGitService();
 		RevWalk walk = new RevWalk(repository);
 		try {
 			RevCommit beforeCommit = walk.parseCommit(repository.resolve(beforeCommitId));
@@ -885,6 +2013,7 @@ public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMine
 			this.detectRefactorings(handler, projectFolder, cloneURL, currentCommitId);
 		} catch (RefactoringMinerTimedOutException e) {
 			logger.warn(String.format("Ignored revision %s due to timeout", currentCommitId), e);
+			handler.handleException(currentCommitId, e);
 		} catch (Exception e) {
 			logger.warn(String.format("Ignored revision %s due to error", currentCommitId), e);
 			handler.handleException(currentCommitId, e);
@@ -0,0 +1,119 @@
+package org.refactoringminer.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe least-recently-used cache, bounded by the total weight of its values.
+ * Values heavier than the maximum weight are never cached.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class BoundedCache<K, V> {
+	private final long maximumWeight;
+	private final ToLongFunction<V> weigher;
+	private final LinkedHashMap<K, V> entries = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private long weight = 0;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public BoundedCache(long maximumWeight, ToLongFunction<V> weigher) {
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+	}
+
+	public V get(K key) {
+		V value;
+		synchronized (this) {
+			value = entries.get(key);
+		}
+		if (value != null) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Retrieves and removes the value associated with the given key, so that the caller has exclusive use of it
+	 * until it is put back.
+	 */
+	public V take(K key) {
+		V value;
+		synchronized (this) {
+			value = entries.remove(key);
+			if (value != null) {
+				weight -= weigher.applyAsLong(value);
+			}
+		}
+		if (value != null) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		long valueWeight = weigher.applyAsLong(value);
+		if (valueWeight > maximumWeight) {
+			return;
+		}
+		synchronized (this) {
+			V previous = entries.put(key, value);
+			if (previous != null) {
+				weight -= weigher.applyAsLong(previous);
+			}
+			weight += valueWeight;
+			Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+			while (weight > maximumWeight && iterator.hasNext()) {
+				Map.Entry<K, V> eldest = iterator.next();
+				weight -= weigher.applyAsLong(eldest.getValue());
+				iterator.remove();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	public long getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public double getHitRate() {
+		long hits = hitCount.get();
+		long requests = hits + missCount.get();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[Entries: %d, Hits: %d, Misses: %d]", size(), getHitCount(), getMissCount());
+	}
+}
@@ -0,0 +1,72 @@
+package org.refactoringminer.util;
+
+import java.io.File;
+
+/**
+ * Options of the clones made by {@link GitServiceImpl#cloneIfNotExists}. By default, all branches are cloned with their full history.
+ * Shallow and partial clones are made with the git executable, since JGit does not support them.
+ */
+public class CloneOptions {
+	private String branch;
+	private int depth = 0;
+	private boolean blobless = false;
+	private File mirrorDirectory;
+
+	public String getBranch() {
+		return branch;
+	}
+
+	/**
+	 * @param branch The only branch to clone, or null to clone all branches (default).
+	 */
+	public CloneOptions setBranch(String branch) {
+		this.branch = branch;
+		return this;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @param depth The number of commits of history to clone from the tip of each cloned branch, or 0 for the full history (default).
+	 *              When mining a range of commits, the depth must reach the parent of the first commit of the range.
+	 */
+	public CloneOptions setDepth(int depth) {
+		this.depth = depth;
+		return this;
+	}
+
+	public boolean isBlobless() {
+		return blobless;
+	}
+
+	/**
+	 * @param blobless Whether file contents are left out of the clone (default false), as with {@code git clone --filter=blob:none}.
+	 *                 The contents of the files changed by the mined commits are then fetched when needed.
+	 */
+	public CloneOptions setBlobless(boolean blobless) {
+		this.blobless = blobless;
+		return this;
+	}
+
+	public File getMirrorDirectory() {
+		return mirrorDirectory;
+	}
+
+	/**
+	 * @param mirrorDirectory A directory of bare mirrors shared by several mining jobs, or null to clone from the remote (default).
+	 *                        The mirror of the cloned repository is created in the directory, or updated if it already exists,
+	 *                        and the clone borrows its objects instead of downloading them again.
+	 *                        The clones therefore depend on the mirrors: a mirror must not be deleted, and its unreachable
+	 *                        objects must not be pruned (for example with git gc --prune=now), while clones made from it exist.
+	 */
+	public CloneOptions setMirrorDirectory(File mirrorDirectory) {
+		this.mirrorDirectory = mirrorDirectory;
+		return this;
+	}
+
+	boolean requiresGitExecutable() {
+		return depth > 0 || blobless;
+	}
+}
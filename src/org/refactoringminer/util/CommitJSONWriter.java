@@ -0,0 +1,157 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+/**
+ * Writes the refactorings detected in each commit to a JSON file, keeping the file open for the whole run.
+ * Output is buffered and flushed at most once per second, and the closing of the document is written on shutdown
+ * if the run is interrupted, so that the file remains parseable.
+ * A path ending with .jsonl (or .jsonl.gz) selects the JSON Lines format, with one commit per line and no enclosing document.
+ * A path ending with .gz compresses the output with gzip.
+ */
+public class CommitJSONWriter implements Closeable {
+	private static final long FLUSH_INTERVAL = 1000;
+	private final Writer writer;
+	private final boolean jsonLines;
+	private final Thread shutdownHook = new Thread(this::closeQuietly);
+	private int commitCount = 0;
+	private long lastFlushTime = System.currentTimeMillis();
+	private boolean closed = false;
+
+	public CommitJSONWriter(Path path) throws IOException {
+		String fileName = path.getFileName().toString();
+		boolean gzip = fileName.endsWith(".gz");
+		this.jsonLines = fileName.endsWith(".jsonl") || fileName.endsWith(".jsonl.gz");
+		OutputStream output = new FileOutputStream(path.toFile());
+		if (gzip) {
+			output = new GZIPOutputStream(output, 64 * 1024, true);
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+		if (!jsonLines) {
+			StringBuilder sb = new StringBuilder();
+			sb.append("{").append("\n");
+			sb.append("\"").append("commits").append("\"").append(": ");
+			sb.append("[").append("\n");
+			writer.write(sb.toString());
+		}
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	public boolean isJsonLines() {
+		return jsonLines;
+	}
+
+	public synchronized void writeCommit(String cloneURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) throws IOException {
+		if (closed) {
+			return;
+		}
+		if (jsonLines) {
+			writer.write(compactCommitJSON(cloneURL, currentCommitId, refactoringsAtRevision));
+			writer.write("\n");
+		}
+		else {
+			if (commitCount > 0) {
+				writer.write(",\n");
+			}
+			writer.write(commitJSON(cloneURL, currentCommitId, refactoringsAtRevision));
+		}
+		commitCount++;
+		long time = System.currentTimeMillis();
+		if (time - lastFlushTime > FLUSH_INTERVAL) {
+			writer.flush();
+			lastFlushTime = time;
+		}
+	}
+
+	private static String commitJSON(String cloneURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{").append("\n");
+		sb.append("\t").append("\"").append("repository").append("\"").append(": ").append("\"").append(cloneURL).append("\"").append(",").append("\n");
+		sb.append("\t").append("\"").append("sha1").append("\"").append(": ").append("\"").append(currentCommitId).append("\"").append(",").append("\n");
+		String url = GitHistoryRefactoringMinerImpl.extractCommitURL(cloneURL, currentCommitId);
+		sb.append("\t").append("\"").append("url").append("\"").append(": ").append("\"").append(url).append("\"").append(",").append("\n");
+		sb.append("\t").append("\"").append("refactorings").append("\"").append(": ");
+		sb.append("[");
+		int counter = 0;
+		for(Refactoring refactoring : refactoringsAtRevision) {
+			sb.append(refactoring.toJSON());
+			if(counter < refactoringsAtRevision.size()-1) {
+				sb.append(",");
+			}
+			sb.append("\n");
+			counter++;
+		}
+		sb.append("]").append("\n");
+		sb.append("}");
+		return sb.toString();
+	}
+
+	/**
+	 * The same document as {@link #commitJSON}, on a single line.
+	 */
+	private static String compactCommitJSON(String cloneURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{");
+		sb.append("\"").append("repository").append("\"").append(":").append("\"").append(cloneURL).append("\"").append(",");
+		sb.append("\"").append("sha1").append("\"").append(":").append("\"").append(currentCommitId).append("\"").append(",");
+		String url = GitHistoryRefactoringMinerImpl.extractCommitURL(cloneURL, currentCommitId);
+		sb.append("\"").append("url").append("\"").append(":").append("\"").append(url).append("\"").append(",");
+		sb.append("\"").append("refactorings").append("\"").append(":");
+		sb.append("[");
+		int counter = 0;
+		for(Refactoring refactoring : refactoringsAtRevision) {
+			sb.append(refactoring.toJSON(true));
+			if(counter < refactoringsAtRevision.size()-1) {
+				sb.append(",");
+			}
+			counter++;
+		}
+		sb.append("]");
+		sb.append("}");
+		return sb.toString();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (!jsonLines) {
+				StringBuilder sb = new StringBuilder();
+				sb.append("]").append("\n");
+				sb.append("}");
+				writer.write(sb.toString());
+			}
+		} finally {
+			writer.close();
+		}
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			//already shutting down
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
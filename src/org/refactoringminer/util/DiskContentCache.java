@@ -0,0 +1,184 @@
+package org.refactoringminer.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread-safe on-disk cache of immutable text contents, such as the files and metadata of a commit identified by its SHA.
+ * Each value is stored in a file named after the hash of its key, so the cache survives across runs.
+ * The least recently used files are deleted when the total size of the cache exceeds its maximum size.
+ */
+public class DiskContentCache {
+	private static final Logger logger = LoggerFactory.getLogger(DiskContentCache.class);
+	private final File directory;
+	private final long maximumSize;
+	//size of each cached file, in access order
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+	private long size = 0;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	public DiskContentCache(File directory, long maximumSize) throws IOException {
+		this.directory = directory;
+		this.maximumSize = maximumSize;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException(String.format("Could not create cache directory %s", directory));
+		}
+		List<File> files = new ArrayList<File>();
+		File[] subdirectories = directory.listFiles(File::isDirectory);
+		if (subdirectories != null) {
+			for (File subdirectory : subdirectories) {
+				File[] cachedFiles = subdirectory.listFiles(File::isFile);
+				if (cachedFiles != null) {
+					for (File file : cachedFiles) {
+						if (file.getName().endsWith(".tmp")) {
+							//left by an interrupted write
+							file.delete();
+						}
+						else {
+							files.add(file);
+						}
+					}
+				}
+			}
+		}
+		files.sort(Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			entries.put(file.getParentFile().getName() + file.getName(), file.length());
+			size += file.length();
+		}
+		evict();
+	}
+
+	/**
+	 * @return The cached value, or null if the key is not cached.
+	 */
+	public String get(String key) {
+		String hash = hash(key);
+		File file = file(hash);
+		boolean cached;
+		synchronized (this) {
+			cached = entries.get(hash) != null;
+		}
+		if (cached) {
+			try {
+				String value = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+				file.setLastModified(System.currentTimeMillis());
+				hitCount.incrementAndGet();
+				return value;
+			}
+			catch (IOException e) {
+				//deleted by eviction in the meantime
+				logger.debug("Could not read cached {}", key, e);
+			}
+		}
+		missCount.incrementAndGet();
+		return null;
+	}
+
+	public void put(String key, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > maximumSize) {
+			return;
+		}
+		String hash = hash(key);
+		File file = file(hash);
+		file.getParentFile().mkdirs();
+		//written to a temporary file first, so that a value is never read partially written
+		File temporaryFile = File.createTempFile(hash, ".tmp", file.getParentFile());
+		try {
+			Files.write(temporaryFile.toPath(), bytes);
+			Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			temporaryFile.delete();
+		}
+		synchronized (this) {
+			Long previous = entries.put(hash, (long) bytes.length);
+			if (previous != null) {
+				size -= previous;
+			}
+			size += bytes.length;
+			evict();
+		}
+	}
+
+	private synchronized void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+		while (size > maximumSize && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			file(eldest.getKey()).delete();
+			size -= eldest.getValue();
+			iterator.remove();
+		}
+	}
+
+	private File file(String hash) {
+		return new File(new File(directory, hash.substring(0, 2)), hash.substring(2));
+	}
+
+	private static String hash(String key) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			byte[] digest = messageDigest.digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public double getHitRate() {
+		long hits = hitCount.get();
+		long requests = hits + missCount.get();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[Entries: %d, Size: %d, Hits: %d, Misses: %d]", size(), getSize(), getHitCount(), getMissCount());
+	}
+}
@@ -0,0 +1,149 @@
+package org.refactoringminer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads the contents of URLs on a bounded set of threads shared by all the commits being analyzed.
+ * The number of concurrent downloads from the same host is limited, and {@link #download} blocks the caller
+ * while too many downloads are pending, so that a commit touching thousands of files does not queue them all at once.
+ */
+public class DownloadExecutor {
+	private static final Logger logger = LoggerFactory.getLogger(DownloadExecutor.class);
+	public static final int DEFAULT_THREAD_COUNT = 8;
+	public static final int DEFAULT_DOWNLOADS_PER_HOST = 8;
+	private final ExecutorService executor;
+	private final int downloadsPerHost;
+	private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+	//downloads submitted and not completed yet
+	private final Semaphore pendingPermits;
+
+	public DownloadExecutor() {
+		this(DEFAULT_THREAD_COUNT, DEFAULT_DOWNLOADS_PER_HOST, false);
+	}
+
+	/**
+	 * @param threadCount The number of download threads. With virtual threads, the maximum number of concurrent downloads.
+	 * @param downloadsPerHost The maximum number of concurrent downloads from the same host.
+	 * @param virtualThreads Whether each download runs on its own virtual thread. Ignored, with a warning,
+	 *                       if the running JVM does not support virtual threads.
+	 */
+	public DownloadExecutor(int threadCount, int downloadsPerHost, boolean virtualThreads) {
+		if (threadCount < 1 || downloadsPerHost < 1) {
+			throw new IllegalArgumentException("The number of threads and downloads per host must be positive");
+		}
+		ExecutorService virtualThreadExecutor = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+		if (virtualThreadExecutor != null) {
+			this.executor = virtualThreadExecutor;
+		}
+		else {
+			AtomicInteger threadNumber = new AtomicInteger();
+			ThreadFactory threadFactory = r -> {
+				Thread thread = new Thread(r, "RefactoringMiner download " + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+			this.executor = Executors.newFixedThreadPool(threadCount, threadFactory);
+		}
+		this.downloadsPerHost = downloadsPerHost;
+		this.pendingPermits = new Semaphore(virtualThreadExecutor != null ? threadCount : 4 * threadCount);
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		}
+		catch (ReflectiveOperationException e) {
+			logger.warn("Virtual threads are not supported by this JVM, using platform threads for downloads");
+			return null;
+		}
+	}
+
+	/**
+	 * Submits the download of the given URL, waiting while too many downloads are pending.
+	 * @return The future contents of the URL, decoded with the default charset.
+	 */
+	public Future<String> download(URL url) throws InterruptedException {
+		pendingPermits.acquire();
+		//the permit is released when the download completes, fails or is cancelled
+		FutureTask<String> task = new FutureTask<String>(() -> read(url)) {
+			@Override
+			protected void done() {
+				pendingPermits.release();
+			}
+		};
+		return submit(task);
+	}
+
+	/**
+	 * Returns the contents of the given URL from the cache, or submits their download and caches them once downloaded.
+	 * @param cacheKey The key identifying the contents in the cache, which must not change for the same key.
+	 */
+	public Future<String> download(URL url, DiskContentCache cache, String cacheKey) throws InterruptedException {
+		String cached = cache.get(cacheKey);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		pendingPermits.acquire();
+		FutureTask<String> task = new FutureTask<String>(() -> {
+			String contents = read(url);
+			try {
+				cache.put(cacheKey, contents);
+			}
+			catch (IOException e) {
+				logger.warn(String.format("Could not cache %s", url), e);
+			}
+			return contents;
+		}) {
+			@Override
+			protected void done() {
+				pendingPermits.release();
+			}
+		};
+		return submit(task);
+	}
+
+	private Future<String> submit(FutureTask<String> task) {
+		try {
+			executor.execute(task);
+		}
+		catch (RuntimeException e) {
+			pendingPermits.release();
+			throw e;
+		}
+		return task;
+	}
+
+	private String read(URL url) throws IOException, InterruptedException {
+		Semaphore permits = hostPermits.computeIfAbsent(url.getHost(), host -> new Semaphore(downloadsPerHost));
+		permits.acquire();
+		try (InputStream input = url.openStream()) {
+			return IOUtils.toString(input, Charset.defaultCharset());
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
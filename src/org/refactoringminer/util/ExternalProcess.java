@@ -6,18 +6,31 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 
 class ExternalProcess {
 	private ExternalProcess() {
 	}
 
 	public static String execute(File workingDir, String ... commandAndArgs) {
+		return executeWithInput(workingDir, null, commandAndArgs);
+	}
+
+	/**
+	 * Executes the command, writing the given input to its standard input.
+	 */
+	public static String executeWithInput(File workingDir, String input, String ... commandAndArgs) {
 		try {
 			Process p = new ProcessBuilder(commandAndArgs)
 			.directory(workingDir)
 			.redirectErrorStream(true)
 			.start();
 			try {
+				if (input != null) {
+					OutputStream os = p.getOutputStream();
+					os.write(input.getBytes());
+					os.close();
+				}
 				StreamGobbler outputGobbler = new StreamGobbler(p.getInputStream());
 				outputGobbler.run();
 				//Thread outputGobblerThread = new Thread(outputGobbler);
@@ -27,7 +40,7 @@ class ExternalProcess {
 				if (p.exitValue() == 0) {
 					return outputGobbler.getOutput();
 				} else {
-					throw new RuntimeException("Error executing command " + commandAndArgs + ":\n" + outputGobbler.getOutput());
+					throw new RuntimeException("Error executing command " + String.join(" ", commandAndArgs) + ":\n" + outputGobbler.getOutput());
 				}
 			}
 			finally {
@@ -36,9 +49,9 @@ class ExternalProcess {
 				//p.destroy();
 			}
 		} catch (IOException e) {
-			throw new RuntimeException("Error executing command " + commandAndArgs, e);
+			throw new RuntimeException("Error executing command " + String.join(" ", commandAndArgs), e);
 		} catch (InterruptedException e) {
-			throw new RuntimeException("Error executing command " + commandAndArgs, e);
+			throw new RuntimeException("Error executing command " + String.join(" ", commandAndArgs), e);
 		}
 	}
 
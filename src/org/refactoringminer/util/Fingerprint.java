@@ -0,0 +1,128 @@
+package org.refactoringminer.util;
+
+/**
+ * A non-cryptographic 128-bit hash of a sequence of strings, for comparing contents without keeping them.
+ * The fingerprint of several appended strings is the fingerprint of their concatenation.
+ */
+public final class Fingerprint {
+	private final long high;
+	private final long low;
+
+	private Fingerprint(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	public static Fingerprint of(CharSequence input) {
+		return new Builder().append(input).build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Fingerprint)) {
+			return false;
+		}
+		Fingerprint other = (Fingerprint) obj;
+		return high == other.high && low == other.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (low ^ (low >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", high, low);
+	}
+
+	/**
+	 * Hashes the appended characters in two independent 64-bit lanes, mixed together when the fingerprint is built.
+	 */
+	public static final class Builder {
+		private static final long PRIME1 = 0x100000001b3L;
+		private static final long PRIME2 = 0x9e3779b97f4a7c15L;
+		private long h1 = 0xcbf29ce484222325L;
+		private long h2 = 0x84222325cbf29ce4L;
+		private long length;
+
+		private Builder() {
+		}
+
+		public Builder append(CharSequence input) {
+			return append(input, 0, input.length());
+		}
+
+		public Builder append(CharSequence input, int start, int end) {
+			long h1 = this.h1;
+			long h2 = this.h2;
+			for (int i = start; i < end; i++) {
+				char c = input.charAt(i);
+				h1 = (h1 ^ c) * PRIME1;
+				h2 = Long.rotateLeft(h2 ^ c, 31) * PRIME2;
+			}
+			this.h1 = h1;
+			this.h2 = h2;
+			this.length += end - start;
+			return this;
+		}
+
+		public Builder append(char[] input, int start, int end) {
+			long h1 = this.h1;
+			long h2 = this.h2;
+			for (int i = start; i < end; i++) {
+				char c = input[i];
+				h1 = (h1 ^ c) * PRIME1;
+				h2 = Long.rotateLeft(h2 ^ c, 31) * PRIME2;
+			}
+			this.h1 = h1;
+			this.h2 = h2;
+			this.length += end - start;
+			return this;
+		}
+
+		public Builder append(char c) {
+			h1 = (h1 ^ c) * PRIME1;
+			h2 = Long.rotateLeft(h2 ^ c, 31) * PRIME2;
+			length++;
+			return this;
+		}
+
+		public Fingerprint build() {
+			long h1 = this.h1 ^ length;
+			long h2 = this.h2 ^ length;
+			h1 += h2;
+			h2 += h1;
+			h1 = mix(h1);
+			h2 = mix(h2);
+			h1 += h2;
+			h2 += h1;
+			return new Fingerprint(h1, h2);
+		}
+
+		//the finalizer of MurmurHash3
+		private static long mix(long h) {
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			h ^= h >>> 33;
+			return h;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package org.refactoringminer.util;
 
 import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
@@ -8,19 +10,30 @@ import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.diff.Edit;
 import org.eclipse.jgit.diff.Edit.Type;
 import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryBuilder;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.patch.FileHeader;
 import org.eclipse.jgit.patch.HunkHeader;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.RevWalkUtils;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.TagOpt;
 import org.eclipse.jgit.transport.TrackingRefUpdate;
+import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.refactoringminer.api.Churn;
 import org.refactoringminer.api.GitService;
@@ -29,6 +42,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -36,9 +51,37 @@ import java.util.stream.StreamSupport;
 public class GitServiceImpl implements GitService {
 
 	private static final String REMOTE_REFS_PREFIX = "refs/remotes/origin/";
+	private static final int RENAME_SCORE = 80;
 	Logger logger = LoggerFactory.getLogger(GitServiceImpl.class);
 
 	DefaultCommitsFilter commitsFilter = new DefaultCommitsFilter();
+	private RenameDetectionSettings renameDetectionSettings = new RenameDetectionSettings();
+	private CloneOptions cloneOptions = new CloneOptions();
+	private MergeStrategy mergeStrategy = MergeStrategy.SKIP;
+
+	public RenameDetectionSettings getRenameDetectionSettings() {
+		return renameDetectionSettings;
+	}
+
+	public void setRenameDetectionSettings(RenameDetectionSettings renameDetectionSettings) {
+		this.renameDetectionSettings = renameDetectionSettings;
+	}
+
+	public CloneOptions getCloneOptions() {
+		return cloneOptions;
+	}
+
+	public void setCloneOptions(CloneOptions cloneOptions) {
+		this.cloneOptions = cloneOptions;
+	}
+
+	public MergeStrategy getMergeStrategy() {
+		return mergeStrategy;
+	}
+
+	public void setMergeStrategy(MergeStrategy mergeStrategy) {
+		this.mergeStrategy = mergeStrategy;
+	}
 	
 	@Override
 	public Repository cloneIfNotExists(String projectPath, String cloneUrl/*, String branch*/) throws Exception {
@@ -56,12 +99,27 @@ public class GitServiceImpl implements GitService {
 			
 		} else {
 			logger.info("Cloning {} ...", cloneUrl);
-			Git git = Git.cloneRepository()
-					.setDirectory(folder)
-					.setURI(cloneUrl)
-					.setCloneAllBranches(true)
-					.call();
-			repository = git.getRepository();
+			File mirror = cloneOptions.getMirrorDirectory() != null ? updateMirror(cloneUrl) : null;
+			if (cloneOptions.requiresGitExecutable()) {
+				repository = cloneWithGitExecutable(folder, cloneUrl, mirror);
+			}
+			else if (mirror != null) {
+				repository = cloneFromMirror(folder, cloneUrl, mirror);
+			}
+			else {
+				CloneCommand clone = Git.cloneRepository()
+						.setDirectory(folder)
+						.setURI(cloneUrl);
+				if (cloneOptions.getBranch() != null) {
+					clone.setBranch(cloneOptions.getBranch())
+						.setBranchesToClone(Collections.singleton(Constants.R_HEADS + cloneOptions.getBranch()));
+				}
+				else {
+					clone.setCloneAllBranches(true);
+				}
+				Git git = clone.call();
+				repository = git.getRepository();
+			}
 			//logger.info("Done cloning {}, current branch is {}", cloneUrl, repository.getBranch());
 		}
 
@@ -95,6 +153,150 @@ public class GitServiceImpl implements GitService {
 		return repository;
 	}
 
+	/**
+	 * Creates the bare mirror of the given repository in the mirror directory, or updates it if it already exists.
+	 * The refs deleted from the remote repository are removed from the mirror, but the clones made from the mirror
+	 * borrow its objects, so the mirror is configured to never prune unreachable objects. It must not be pruned
+	 * by other means, such as git gc --prune=now or git prune, while such clones exist.
+	 */
+	private File updateMirror(String cloneUrl) throws Exception {
+		String path = new URIish(cloneUrl).getPath();
+		if (path.endsWith("/")) {
+			path = path.substring(0, path.length() - 1);
+		}
+		if (!path.endsWith(Constants.DOT_GIT_EXT)) {
+			path = path + Constants.DOT_GIT_EXT;
+		}
+		File mirror = new File(cloneOptions.getMirrorDirectory(), path);
+		if (mirror.exists()) {
+			logger.info("Updating mirror {} ...", mirror);
+			try (Git git = Git.open(mirror)) {
+				keepUnreachableObjects(git.getRepository());
+				git.fetch().setRemoveDeletedRefs(true).call();
+			}
+		}
+		else {
+			logger.info("Creating mirror {} ...", mirror);
+			try (Git git = Git.cloneRepository()
+					.setDirectory(mirror)
+					.setURI(cloneUrl)
+					.setMirror(true)
+					.call()) {
+				keepUnreachableObjects(git.getRepository());
+			}
+		}
+		return mirror;
+	}
+
+	/**
+	 * Disables the automatic garbage collection of the given mirror and the pruning of its unreachable objects,
+	 * which may still be borrowed by clones after the refs reaching them are deleted.
+	 */
+	private static void keepUnreachableObjects(Repository mirrorRepository) throws IOException {
+		StoredConfig config = mirrorRepository.getConfig();
+		config.setInt("gc", null, "auto", 0);
+		config.setString("gc", null, "pruneExpire", "never");
+		config.save();
+	}
+
+	/**
+	 * Clones the repository from its local mirror, borrowing the objects of the mirror through the alternates of the clone,
+	 * so that only refs are copied. The origin of the clone is the remote repository.
+	 */
+	private Repository cloneFromMirror(File folder, String cloneUrl, File mirror) throws Exception {
+		try (Git git = Git.init().setDirectory(folder).call()) {
+			File alternates = new File(git.getRepository().getDirectory(), "objects/info/alternates");
+			alternates.getParentFile().mkdirs();
+			Files.write(alternates.toPath(), (new File(mirror, "objects").getAbsolutePath() + "\n").getBytes());
+		}
+		Repository repository = openRepository(folder.getPath());
+		StoredConfig config = repository.getConfig();
+		config.setString("remote", "origin", "url", cloneUrl);
+		config.setString("remote", "origin", "fetch", "+refs/heads/*:refs/remotes/origin/*");
+		config.save();
+		String branch = cloneOptions.getBranch();
+		if (branch == null) {
+			try (Repository mirrorRepository = new RepositoryBuilder().setGitDir(mirror).build()) {
+				branch = Repository.shortenRefName(mirrorRepository.exactRef(Constants.HEAD).getTarget().getName());
+			}
+		}
+		try (Git git = new Git(repository)) {
+			String refSpec = cloneOptions.getBranch() != null ?
+					"+" + Constants.R_HEADS + branch + ":" + REMOTE_REFS_PREFIX + branch : "+refs/heads/*:refs/remotes/origin/*";
+			git.fetch()
+					.setRemote(mirror.getAbsolutePath())
+					.setRefSpecs(refSpec)
+					.setTagOpt(TagOpt.FETCH_TAGS)
+					.call();
+			git.checkout()
+					.setCreateBranch(true)
+					.setName(branch)
+					.setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.TRACK)
+					.setStartPoint("origin/" + branch)
+					.call();
+		}
+		return repository;
+	}
+
+	private Repository cloneWithGitExecutable(File folder, String cloneUrl, File mirror) throws Exception {
+		List<String> command = new ArrayList<String>(Arrays.asList("git", "clone"));
+		if (cloneOptions.getBranch() != null) {
+			command.addAll(Arrays.asList("--branch", cloneOptions.getBranch(), "--single-branch"));
+		}
+		else {
+			command.add("--no-single-branch");
+		}
+		if (cloneOptions.getDepth() > 0) {
+			command.addAll(Arrays.asList("--depth", String.valueOf(cloneOptions.getDepth())));
+		}
+		if (cloneOptions.isBlobless()) {
+			command.add("--filter=blob:none");
+		}
+		if (mirror != null) {
+			command.addAll(Arrays.asList("--reference", mirror.getAbsolutePath()));
+		}
+		command.add(cloneUrl);
+		command.add(folder.getAbsolutePath());
+		File parentFolder = folder.getAbsoluteFile().getParentFile();
+		parentFolder.mkdirs();
+		ExternalProcess.execute(parentFolder, command.toArray(new String[command.size()]));
+		return openRepository(folder.getPath());
+	}
+
+	/**
+	 * Fetches the given objects that are missing from a partial clone, with a single request to its promisor remote.
+	 * Does nothing if the repository is not a partial clone, since all objects are then present.
+	 */
+	public static void fetchMissingObjects(Repository repository, Collection<? extends ObjectId> objectIds) throws IOException {
+		String promisorRemote = null;
+		for (String remote : repository.getConfig().getSubsections("remote")) {
+			if (repository.getConfig().getBoolean("remote", remote, "promisor", false)) {
+				promisorRemote = remote;
+				break;
+			}
+		}
+		if (promisorRemote == null) {
+			return;
+		}
+		StringBuilder missingObjectIds = new StringBuilder();
+		int missingObjectCount = 0;
+		try (ObjectReader reader = repository.newObjectReader()) {
+			for (ObjectId objectId : objectIds) {
+				if (!ObjectId.zeroId().equals(objectId) && !reader.has(objectId)) {
+					missingObjectIds.append(objectId.getName()).append('\n');
+					missingObjectCount++;
+				}
+			}
+		}
+		if (missingObjectCount > 0) {
+			LoggerFactory.getLogger(GitServiceImpl.class).debug("Fetching {} missing objects from {}", missingObjectCount, promisorRemote);
+			//the request made by git itself to fetch the missing objects of a partial clone
+			ExternalProcess.executeWithInput(repository.getDirectory(), missingObjectIds.toString(),
+					"git", "-c", "fetch.negotiationAlgorithm=noop", "fetch", promisorRemote,
+					"--no-tags", "--no-write-fetch-head", "--recurse-submodules=no", "--filter=blob:none", "--stdin");
+		}
+	}
+
 	@Override
 	public Repository openRepository(String repositoryPath) throws Exception {
 	    File folder = new File(repositoryPath);
@@ -138,7 +340,10 @@ public class GitServiceImpl implements GitService {
 			Ref ref = repository.findRef(REMOTE_REFS_PREFIX + branch);
 			ObjectId objectId = ref.getObjectId();
 			RevCommit start = walk.parseCommit(objectId);
-			walk.setRevFilter(RevFilter.NO_MERGES);
+			walk.setFirstParent(mergeStrategy == MergeStrategy.FIRST_PARENT);
+			if (mergeStrategy == MergeStrategy.SKIP) {
+				walk.setRevFilter(RevFilter.NO_MERGES);
+			}
 			return RevWalkUtils.count(walk, start, null);
 		} finally {
 			walk.dispose();
@@ -183,6 +388,7 @@ public class GitServiceImpl implements GitService {
 		List<TrackingRefUpdate> newRemoteRefs = this.fetch(repository);
 		
 		RevWalk walk = new RevWalk(repository);
+		walk.setFirstParent(mergeStrategy == MergeStrategy.FIRST_PARENT);
 		for (TrackingRefUpdate newRef : newRemoteRefs) {
 			if (branch == null || newRef.getLocalName().endsWith("/" + branch)) {
 				walk.markStart(walk.parseCommit(newRef.getNewObjectId()));
@@ -211,6 +417,7 @@ public class GitServiceImpl implements GitService {
 		}
 		
 		RevWalk walk = new RevWalk(repository);
+		walk.setFirstParent(mergeStrategy == MergeStrategy.FIRST_PARENT);
 		for (ObjectId newRef : currentRemoteRefs) {
 			walk.markStart(walk.parseCommit(newRef));
 		}
@@ -223,14 +430,7 @@ public class GitServiceImpl implements GitService {
 			throws Exception {
 		Ref refFrom = repository.findRef(startTag);
 		Ref refTo = repository.findRef(endTag);
-		try (Git git = new Git(repository)) {
-			List<RevCommit> revCommits = StreamSupport.stream(git.log().addRange(getActualRefObjectId(refFrom), getActualRefObjectId(refTo)).call()
-					.spliterator(), false)
-			        .filter(r -> r.getParentCount() == 1)
-			        .collect(Collectors.toList());
-			Collections.reverse(revCommits);
-			return revCommits;
-		}
+		return createRevsWalkBetween(repository, getActualRefObjectId(refFrom), getActualRefObjectId(refTo));
 	}
 
 	private ObjectId getActualRefObjectId(Ref ref) {
@@ -245,24 +445,106 @@ public class GitServiceImpl implements GitService {
 			throws Exception {
 		ObjectId from = repository.resolve(startCommitId);
 		ObjectId to = repository.resolve(endCommitId);
-		try (Git git = new Git(repository)) {
-			List<RevCommit> revCommits = StreamSupport.stream(git.log().addRange(from, to).call()
-					.spliterator(), false)
-					.filter(r -> r.getParentCount() == 1)
-			        .collect(Collectors.toList());
+		return createRevsWalkBetween(repository, from, to);
+	}
+
+	private List<RevCommit> createRevsWalkBetween(Repository repository, ObjectId from, ObjectId to) throws Exception {
+		try (RevWalk walk = new RevWalk(repository)) {
+			walk.setFirstParent(mergeStrategy == MergeStrategy.FIRST_PARENT);
+			walk.markUninteresting(walk.parseCommit(from));
+			walk.markStart(walk.parseCommit(to));
+			List<RevCommit> revCommits = StreamSupport.stream(walk.spliterator(), false)
+					.filter(this::isWalked)
+					.collect(Collectors.toList());
 			Collections.reverse(revCommits);
 			return revCommits;
 		}
 	}
 
+	/**
+	 * Creates a walk of the union of the histories of the given refs, returning each commit once, in topological order,
+	 * with the refs containing it.
+	 * 
+	 * @param refNames The names of the refs, resolved like in git commands, such as {@code main}, {@code origin/main} or {@code refs/tags/v1.0}.
+	 *                 A name matching no ref is resolved as a branch of the origin remote.
+	 */
+	public RefsWalk createRefsWalk(Repository repository, Collection<String> refNames) throws Exception {
+		List<String> names = new ArrayList<String>(new LinkedHashSet<String>(refNames));
+		Map<ObjectId, BitSet> tipRefs = new LinkedHashMap<ObjectId, BitSet>();
+		RevWalk walk = new RevWalk(repository);
+		try {
+			walk.sort(RevSort.TOPO);
+			walk.setFirstParent(mergeStrategy == MergeStrategy.FIRST_PARENT);
+			for (int i = 0; i < names.size(); i++) {
+				Ref ref = repository.findRef(names.get(i));
+				if (ref == null) {
+					//a branch of the origin remote, as in createAllRevsWalk
+					ref = repository.findRef(REMOTE_REFS_PREFIX + names.get(i));
+				}
+				if (ref == null) {
+					throw new IllegalArgumentException(String.format("Ref %s not found", names.get(i)));
+				}
+				RevCommit tip = walk.parseCommit(getActualRefObjectId(ref));
+				tipRefs.computeIfAbsent(tip, t -> new BitSet()).set(i);
+				walk.markStart(tip);
+			}
+		}
+		catch (Exception e) {
+			walk.close();
+			throw e;
+		}
+		return new RefsWalk(walk, names, tipRefs, c -> isWalked(c) && !isCommitAnalyzed(c.getName()));
+	}
+
+	private boolean isWalked(RevCommit commit) {
+		return commit.getParentCount() == 1 || (commit.getParentCount() > 1 && mergeStrategy != MergeStrategy.SKIP);
+	}
+
 	public boolean isCommitAnalyzed(String sha1) {
 		return false;
 	}
 
+	@Override
+	public List<RevCommit> leftSideCommits(Repository repository, RevCommit commit) throws Exception {
+		try (RevWalk walk = new RevWalk(repository)) {
+			RevCommit currentCommit = walk.parseCommit(commit);
+			List<RevCommit> leftSideCommits = new ArrayList<RevCommit>();
+			if (currentCommit.getParentCount() == 1 || (currentCommit.getParentCount() > 1 &&
+					(mergeStrategy == MergeStrategy.SKIP || mergeStrategy == MergeStrategy.FIRST_PARENT))) {
+				leftSideCommits.add(walk.parseCommit(currentCommit.getParent(0)));
+			}
+			else if (currentCommit.getParentCount() > 1 && mergeStrategy == MergeStrategy.MERGE_BASE) {
+				RevCommit mergeBase = mergeBase(walk, currentCommit.getParents());
+				if (mergeBase == null) {
+					throw new IllegalStateException(String.format("The parents of merge commit %s have no merge base", currentCommit.getName()));
+				}
+				leftSideCommits.add(mergeBase);
+			}
+			else if (currentCommit.getParentCount() > 1) {
+				for (RevCommit parent : currentCommit.getParents()) {
+					leftSideCommits.add(walk.parseCommit(parent));
+				}
+			}
+			return leftSideCommits;
+		}
+	}
+
+	private RevCommit mergeBase(RevWalk walk, RevCommit[] commits) throws Exception {
+		//the merge base filter changes the state of the walk, so it runs on a walk of its own
+		try (RevWalk mergeBaseWalk = new RevWalk(walk.getObjectReader())) {
+			mergeBaseWalk.setRevFilter(RevFilter.MERGE_BASE);
+			for (RevCommit commit : commits) {
+				mergeBaseWalk.markStart(mergeBaseWalk.parseCommit(commit));
+			}
+			RevCommit mergeBase = mergeBaseWalk.next();
+			return mergeBase != null ? walk.parseCommit(mergeBase) : null;
+		}
+	}
+
 	private class DefaultCommitsFilter extends RevFilter {
 		@Override
 		public final boolean include(final RevWalk walker, final RevCommit c) {
-			return c.getParentCount() == 1 && !isCommitAnalyzed(c.getName());
+			return isWalked(c) && !isCommitAnalyzed(c.getName());
 		}
 
 		@Override
@@ -283,18 +565,86 @@ public class GitServiceImpl implements GitService {
 
 	@Override
 	public void fileTreeDiff(Repository repository, RevCommit leftSideCommit, RevCommit rightSideCommit, List<String> javaFilesBefore, List<String> javaFilesCurrent, Map<String, String> renamedFilesHint) throws Exception {
+		fileTreeDiff(repository, leftSideCommit, rightSideCommit, javaFilesBefore, javaFilesCurrent, renamedFilesHint, null, true);
+	}
+
+	@Override
+	public void fileTreeDiff(Repository repository, RevCommit leftSideCommit, RevCommit rightSideCommit, List<String> javaFilesBefore, List<String> javaFilesCurrent, Map<String, String> renamedFilesHint,
+			Map<String, Churn> fileChurns, boolean javaFilesChurnOnly) throws Exception {
 		ObjectId oldTree = leftSideCommit.getTree();
 		ObjectId newTree = rightSideCommit.getTree();
 		final TreeWalk tw = new TreeWalk(repository);
 		tw.setRecursive(true);
 		tw.addTree(oldTree);
 		tw.addTree(newTree);
+		//the other files are only scanned for their churn
+		boolean javaFilesScannedOnly = renameDetectionSettings.isJavaFilesOnly() && (fileChurns == null || javaFilesChurnOnly);
+		if (javaFilesScannedOnly) {
+			tw.setFilter(AndTreeFilter.create(TreeFilter.ANY_DIFF, PathSuffixFilter.create(".java")));
+		}
+		else {
+			tw.setFilter(TreeFilter.ANY_DIFF);
+		}
 
-		final RenameDetector rd = new RenameDetector(repository);
-		rd.setRenameScore(80);
-		rd.addAll(DiffEntry.scan(tw));
+		long startTime = System.nanoTime();
+		List<DiffEntry> scannedEntries = DiffEntry.scan(tw);
+		long scanTime = System.nanoTime();
+		List<DiffEntry> entries = scannedEntries;
+		List<DiffEntry> otherEntries = Collections.emptyList();
+		if (renameDetectionSettings.isJavaFilesOnly() && !javaFilesScannedOnly) {
+			entries = new ArrayList<DiffEntry>();
+			otherEntries = new ArrayList<DiffEntry>();
+			for (DiffEntry entry : scannedEntries) {
+				if (isJavafile(entry.getOldPath()) || isJavafile(entry.getNewPath())) {
+					entries.add(entry);
+				}
+				else {
+					otherEntries.add(entry);
+				}
+			}
+		}
+		if (fileChurns != null) {
+			//the contents of all the changed files are diffed to compute their churn
+			List<ObjectId> objectIds = new ArrayList<ObjectId>();
+			for (DiffEntry entry : scannedEntries) {
+				objectIds.add(entry.getOldId().toObjectId());
+				objectIds.add(entry.getNewId().toObjectId());
+			}
+			fetchMissingObjects(repository, objectIds);
+		}
+		else if (!renameDetectionSettings.isExactRenamesOnly()) {
+			//the contents of the added and deleted files are compared to detect renames
+			List<ObjectId> objectIds = new ArrayList<ObjectId>();
+			for (DiffEntry entry : entries) {
+				if (entry.getChangeType() == ChangeType.ADD) {
+					objectIds.add(entry.getNewId().toObjectId());
+				}
+				else if (entry.getChangeType() == ChangeType.DELETE) {
+					objectIds.add(entry.getOldId().toObjectId());
+				}
+			}
+			fetchMissingObjects(repository, objectIds);
+		}
+		List<DiffEntry> diffs;
+		boolean overRenameLimit = false;
+		if (renameDetectionSettings.isExactRenamesOnly()) {
+			diffs = exactRenames(entries);
+		}
+		else {
+			final RenameDetector rd = new RenameDetector(repository);
+			rd.setRenameScore(RENAME_SCORE);
+			if (renameDetectionSettings.getRenameLimit() != null) {
+				rd.setRenameLimit(renameDetectionSettings.getRenameLimit());
+			}
+			rd.addAll(entries);
+			diffs = rd.compute(tw.getObjectReader(), null);
+			overRenameLimit = rd.isOverRenameLimit();
+		}
+		long endTime = System.nanoTime();
+		logger.debug("Rename detection at commit {}: {} entries, scan {} ms, renames {} ms{}", rightSideCommit.getName(), entries.size(),
+				(scanTime - startTime) / 1000000, (endTime - scanTime) / 1000000, overRenameLimit ? " (over rename limit)" : "");
 
-		for (DiffEntry diff : rd.compute(tw.getObjectReader(), null)) {
+		for (DiffEntry diff : diffs) {
 			ChangeType changeType = diff.getChangeType();
 			String oldPath = diff.getOldPath();
 			String newPath = diff.getNewPath();
@@ -308,12 +658,26 @@ public class GitServiceImpl implements GitService {
 					javaFilesCurrent.add(newPath);
 				}
 			}
-			if (changeType == ChangeType.RENAME && diff.getScore() >= rd.getRenameScore()) {
+			if (changeType == ChangeType.RENAME && diff.getScore() >= RENAME_SCORE) {
 				if (isJavafile(oldPath) && isJavafile(newPath)) {
 					renamedFilesHint.put(oldPath, newPath);
 				}
 			}
 		}
+		if (fileChurns != null) {
+			try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+				diffFormatter.setReader(tw.getObjectReader(), repository.getConfig());
+				diffFormatter.setContext(0);
+				List<DiffEntry> churnEntries = new ArrayList<DiffEntry>(diffs);
+				churnEntries.addAll(otherEntries);
+				for (DiffEntry entry : churnEntries) {
+					String path = entry.getChangeType() == ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+					if (!javaFilesChurnOnly || isJavafile(entry.getOldPath()) || isJavafile(entry.getNewPath())) {
+						fileChurns.put(path, churn(diffFormatter, entry));
+					}
+				}
+			}
+		}
 	}
 
 	@Override
@@ -338,6 +702,12 @@ public class GitServiceImpl implements GitService {
         	tw.addTree(newTree);
         	
         	List<DiffEntry> diffs = DiffEntry.scan(tw);
+        	List<ObjectId> objectIds = new ArrayList<ObjectId>();
+        	for (DiffEntry entry : diffs) {
+        		objectIds.add(entry.getOldId().toObjectId());
+        		objectIds.add(entry.getNewId().toObjectId());
+        	}
+        	fetchMissingObjects(repository, objectIds);
         	DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
     		diffFormatter.setRepository(repository);
     		diffFormatter.setContext(0);
@@ -345,24 +715,91 @@ public class GitServiceImpl implements GitService {
         	int addedLines = 0;
     		int deletedLines = 0;
         	for (DiffEntry entry : diffs) {
-    			FileHeader header = diffFormatter.toFileHeader(entry);
-            	List<? extends HunkHeader> hunks = header.getHunks();
-            	for (HunkHeader hunkHeader : hunks) {
-            		for (Edit edit : hunkHeader.toEditList()) {
-    					if (edit.getType() == Type.INSERT) {
-    						addedLines += edit.getLengthB();
-    					} else if (edit.getType() == Type.DELETE) {
-    						deletedLines += edit.getLengthA();
-    					} else if (edit.getType() == Type.REPLACE) {
-    						deletedLines += edit.getLengthA();
-    						addedLines += edit.getLengthB();
-    					}
-    				}
-            	}
+        		Churn fileChurn = churn(diffFormatter, entry);
+        		addedLines += fileChurn.getLinesAdded();
+        		deletedLines += fileChurn.getLinesRemoved();
         	}
         	diffFormatter.close();
         	return new Churn(addedLines, deletedLines);
 		}
 		return null;
 	}
+
+	/**
+	 * Pairs the added and deleted files with identical contents as renames, preferring a deleted file with the same name.
+	 * Unlike {@link RenameDetector}, the contents of the files are never read and no copies are reported.
+	 * The entries are sorted by path, deletions first, as by {@link RenameDetector#compute}.
+	 */
+	private static List<DiffEntry> exactRenames(List<DiffEntry> entries) {
+		Map<AbbreviatedObjectId, List<DiffEntry>> deletedFiles = new HashMap<AbbreviatedObjectId, List<DiffEntry>>();
+		for (DiffEntry entry : entries) {
+			if (entry.getChangeType() == ChangeType.DELETE && isFile(entry.getOldMode())) {
+				deletedFiles.computeIfAbsent(entry.getOldId(), id -> new ArrayList<DiffEntry>()).add(entry);
+			}
+		}
+		Set<DiffEntry> renamedFiles = new HashSet<DiffEntry>();
+		List<DiffEntry> diffs = new ArrayList<DiffEntry>();
+		for (DiffEntry entry : entries) {
+			List<DiffEntry> candidates = entry.getChangeType() == ChangeType.ADD && isFile(entry.getNewMode()) ? deletedFiles.get(entry.getNewId()) : null;
+			if (candidates == null || candidates.isEmpty()) {
+				diffs.add(entry);
+				continue;
+			}
+			String fileName = entry.getNewPath().substring(entry.getNewPath().lastIndexOf('/') + 1);
+			DiffEntry deletedFile = candidates.get(0);
+			for (DiffEntry candidate : candidates) {
+				if (candidate.getOldPath().substring(candidate.getOldPath().lastIndexOf('/') + 1).equals(fileName)) {
+					deletedFile = candidate;
+					break;
+				}
+			}
+			candidates.remove(deletedFile);
+			renamedFiles.add(deletedFile);
+			diffs.add(new ExactRename(deletedFile, entry));
+		}
+		diffs.removeAll(renamedFiles);
+		diffs.sort(Comparator.comparing((DiffEntry entry) -> entry.getChangeType() == ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath())
+				.thenComparing(entry -> entry.getChangeType() != ChangeType.DELETE));
+		return diffs;
+	}
+
+	private static boolean isFile(FileMode mode) {
+		return (mode.getBits() & FileMode.TYPE_MASK) == FileMode.TYPE_FILE;
+	}
+
+	/**
+	 * The rename of a file whose contents are unchanged.
+	 */
+	private static class ExactRename extends DiffEntry {
+		private ExactRename(DiffEntry deletedFile, DiffEntry addedFile) {
+			oldPath = deletedFile.getOldPath();
+			oldMode = deletedFile.getOldMode();
+			oldId = deletedFile.getOldId();
+			newPath = addedFile.getNewPath();
+			newMode = addedFile.getNewMode();
+			newId = addedFile.getNewId();
+			diffAttribute = addedFile.getDiffAttribute();
+			changeType = ChangeType.RENAME;
+			score = 100;
+		}
+	}
+
+	private static Churn churn(DiffFormatter diffFormatter, DiffEntry entry) throws IOException {
+		int addedLines = 0;
+		int deletedLines = 0;
+		FileHeader header = diffFormatter.toFileHeader(entry);
+		for (HunkHeader hunkHeader : header.getHunks()) {
+			for (Edit edit : hunkHeader.toEditList()) {
+				if (edit.getType() == Type.INSERT) {
+					addedLines += edit.getLengthB();
+				} else if (edit.getType() == Type.DELETE) {
+					deletedLines += edit.getLengthA();
+				} else if (edit.getType() == Type.REPLACE) {
+					deletedLines += edit.getLengthA();
+					addedLines += edit.getLengthB();
+				}
+			}
+		}
+		return new Churn(addedLines, deletedLines);
+	}
 }
@@ -0,0 +1,61 @@
+package org.refactoringminer.util;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+
+/**
+ * Compares Java source code at the token level, so that two sources differing only in comments, whitespace
+ * and import declarations are equivalent. String and character literals are compared verbatim.
+ */
+public class JavaSourceNormalizer {
+
+	private JavaSourceNormalizer() {
+	}
+
+	/**
+	 * Hashes the tokens of the given source, as read by the JDT scanner, so that two sources differing only in comments,
+	 * whitespace and import declarations have the same fingerprint. Much cheaper than parsing the sources.
+	 *
+	 * @return The fingerprint of the tokens, or null if the source cannot be tokenized.
+	 */
+	public static Fingerprint tokenFingerprint(String source) {
+		char[] chars = source.toCharArray();
+		IScanner scanner = ToolFactory.createScanner(false, false, false, JavaCore.VERSION_15, JavaCore.VERSION_15);
+		scanner.setSource(chars);
+		Fingerprint.Builder fingerprint = Fingerprint.builder();
+		boolean importDeclaration = false;
+		try {
+			int token;
+			while ((token = scanner.getNextToken()) != ITerminalSymbols.TokenNameEOF) {
+				if (token == ITerminalSymbols.TokenNameimport) {
+					importDeclaration = true;
+				}
+				else if (importDeclaration) {
+					importDeclaration = token != ITerminalSymbols.TokenNameSEMICOLON;
+				}
+				else {
+					//the token type separates the tokens
+					fingerprint.append((char) token).append(chars, scanner.getCurrentTokenStartPosition(), scanner.getCurrentTokenEndPosition() + 1);
+				}
+			}
+		}
+		catch (InvalidInputException e) {
+			return null;
+		}
+		return fingerprint.build();
+	}
+
+	/**
+	 * @return True if the given sources differ only in comments, whitespace and import declarations.
+	 */
+	public static boolean equivalent(String source1, String source2) {
+		if (source1.equals(source2)) {
+			return true;
+		}
+		Fingerprint fingerprint1 = tokenFingerprint(source1);
+		return fingerprint1 != null && fingerprint1.equals(tokenFingerprint(source2));
+	}
+}
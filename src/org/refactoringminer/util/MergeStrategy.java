@@ -0,0 +1,25 @@
+package org.refactoringminer.util;
+
+/**
+ * How merge commits are walked and diffed by {@link GitServiceImpl}.
+ */
+public enum MergeStrategy {
+	/**
+	 * Merge commits are left out of the commit walks (default).
+	 * A merge commit analyzed explicitly, as in {@code detectAtCommit}, is diffed against its first parent.
+	 */
+	SKIP,
+	/**
+	 * Only the first parent of each merge commit is followed, and merge commits are diffed against their first parent,
+	 * so that each branch merged into the mined branch is analyzed once, as a single change.
+	 */
+	FIRST_PARENT,
+	/**
+	 * Merge commits are diffed against the merge base of their parents, covering the changes of all the merged branches since they diverged.
+	 */
+	MERGE_BASE,
+	/**
+	 * Merge commits are diffed against each of their parents, and the refactorings found in all the diffs are reported together.
+	 */
+	EACH_PARENT
+}
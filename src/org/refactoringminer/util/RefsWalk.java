@@ -0,0 +1,121 @@
+package org.refactoringminer.util;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Walks the union of the histories of several refs once, in topological order, so that each commit is returned once
+ * even if several refs contain it. Since a commit is walked after all its children, the refs containing it are known
+ * when it is returned, from the refs containing its children.
+ * Created by {@link GitServiceImpl#createRefsWalk}.
+ */
+public class RefsWalk implements Iterator<RevCommit>, AutoCloseable {
+	private final RevWalk walk;
+	private final List<String> refNames;
+	private final Map<ObjectId, BitSet> tipRefs;
+	private final Predicate<RevCommit> filter;
+	//refs of the walked children of the commits not walked yet
+	private final Map<ObjectId, BitSet> pendingRefs = new HashMap<ObjectId, BitSet>();
+	//a single set for each combination of refs
+	private final Map<BitSet, Set<String>> refSets = new HashMap<BitSet, Set<String>>();
+	private RevCommit next;
+	private Set<String> nextRefs;
+	private Set<String> refs;
+
+	//the walk is started from the tip commits of the refs, in topological order
+	RefsWalk(RevWalk walk, List<String> refNames, Map<ObjectId, BitSet> tipRefs, Predicate<RevCommit> filter) {
+		this.walk = walk;
+		this.refNames = refNames;
+		this.tipRefs = tipRefs;
+		this.filter = filter;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			advance();
+		}
+		return next != null;
+	}
+
+	@Override
+	public RevCommit next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		RevCommit commit = next;
+		refs = nextRefs;
+		next = null;
+		nextRefs = null;
+		return commit;
+	}
+
+	/**
+	 * @return The names of the refs containing the commit last returned by {@link #next()}.
+	 */
+	public Set<String> getRefs() {
+		return refs;
+	}
+
+	private void advance() {
+		try {
+			RevCommit commit;
+			while ((commit = walk.next()) != null) {
+				BitSet commitRefs = pendingRefs.remove(commit);
+				BitSet tip = tipRefs.get(commit);
+				if (commitRefs == null) {
+					commitRefs = tip;
+				}
+				else if (tip != null) {
+					commitRefs = union(commitRefs, tip);
+				}
+				//the filtered commits still pass their refs to their parents
+				int parentCount = walk.isFirstParent() ? Math.min(commit.getParentCount(), 1) : commit.getParentCount();
+				for (int i = 0; i < parentCount; i++) {
+					pendingRefs.merge(commit.getParent(i), commitRefs, RefsWalk::union);
+				}
+				if (filter.test(commit)) {
+					next = commit;
+					nextRefs = refSets.computeIfAbsent(commitRefs, this::refNames);
+					return;
+				}
+			}
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Could not walk the refs " + refNames, e);
+		}
+	}
+
+	//the bit sets are shared between commits, so they are never modified
+	private static BitSet union(BitSet refs1, BitSet refs2) {
+		BitSet union = (BitSet) refs1.clone();
+		union.or(refs2);
+		return union;
+	}
+
+	private Set<String> refNames(BitSet refs) {
+		Set<String> names = new LinkedHashSet<String>();
+		for (int i = refs.nextSetBit(0); i >= 0; i = refs.nextSetBit(i + 1)) {
+			names.add(refNames.get(i));
+		}
+		return Collections.unmodifiableSet(names);
+	}
+
+	@Override
+	public void close() {
+		walk.close();
+		walk.dispose();
+	}
+}
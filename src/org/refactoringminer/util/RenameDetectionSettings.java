@@ -0,0 +1,51 @@
+package org.refactoringminer.util;
+
+/**
+ * Settings of the rename detection performed when computing the files changed by a commit.
+ */
+public class RenameDetectionSettings {
+	private boolean javaFilesOnly = false;
+	private Integer renameLimit;
+	private boolean exactRenamesOnly = false;
+
+	public boolean isJavaFilesOnly() {
+		return javaFilesOnly;
+	}
+
+	/**
+	 * @param javaFilesOnly Whether only Java files are diffed and considered as rename sources and targets (default false).
+	 *                      Renames from or to other files are then reported as a deletion and an addition,
+	 *                      and a renamed Java file may be paired with a different source than among all the files.
+	 */
+	public RenameDetectionSettings setJavaFilesOnly(boolean javaFilesOnly) {
+		this.javaFilesOnly = javaFilesOnly;
+		return this;
+	}
+
+	public Integer getRenameLimit() {
+		return renameLimit;
+	}
+
+	/**
+	 * @param renameLimit The maximum number of added or deleted files for which content similarity is computed.
+	 *                    Above the limit only exact renames are detected. Zero removes the limit.
+	 *                    By default, the diff.renameLimit of the repository configuration applies.
+	 */
+	public RenameDetectionSettings setRenameLimit(int renameLimit) {
+		this.renameLimit = renameLimit;
+		return this;
+	}
+
+	public boolean isExactRenamesOnly() {
+		return exactRenamesOnly;
+	}
+
+	/**
+	 * @param exactRenamesOnly Whether only renames of files with identical contents are detected,
+	 *                         skipping content similarity scoring (default false).
+	 */
+	public RenameDetectionSettings setExactRenamesOnly(boolean exactRenamesOnly) {
+		this.exactRenamesOnly = exactRenamesOnly;
+		return this;
+	}
+}
@@ -0,0 +1,97 @@
+package org.refactoringminer.util;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * The directories containing Java files in a tree of a git repository, including their parent directories.
+ * An index is built once by walking a whole tree, and the index of any other tree is derived from it
+ * by applying the Java files added and deleted between the two trees.
+ */
+public class RepositoryDirectoryIndex {
+	private static final TreeFilter JAVA_FILES = PathSuffixFilter.create(".java");
+	private final ObjectId treeId;
+	//number of Java files contained in each directory and its sub-directories
+	private final Map<String, Integer> javaFileCounts;
+
+	private RepositoryDirectoryIndex(ObjectId treeId, Map<String, Integer> javaFileCounts) {
+		this.treeId = treeId;
+		this.javaFileCounts = javaFileCounts;
+	}
+
+	public static RepositoryDirectoryIndex build(Repository repository, ObjectId treeId) throws IOException {
+		Map<String, Integer> javaFileCounts = new HashMap<String, Integer>();
+		try (TreeWalk treeWalk = new TreeWalk(repository)) {
+			treeWalk.addTree(treeId);
+			treeWalk.setRecursive(true);
+			treeWalk.setFilter(JAVA_FILES);
+			while (treeWalk.next()) {
+				update(javaFileCounts, treeWalk.getPathString(), 1);
+			}
+		}
+		return new RepositoryDirectoryIndex(treeId.copy(), javaFileCounts);
+	}
+
+	/**
+	 * Derives the index of another tree, walking only the sub-trees that differ between the two trees.
+	 */
+	public RepositoryDirectoryIndex derive(Repository repository, ObjectId otherTreeId) throws IOException {
+		if (treeId.equals(otherTreeId)) {
+			return this;
+		}
+		Map<String, Integer> javaFileCounts = new HashMap<String, Integer>(this.javaFileCounts);
+		try (TreeWalk treeWalk = new TreeWalk(repository)) {
+			treeWalk.addTree(treeId);
+			treeWalk.addTree(otherTreeId);
+			treeWalk.setRecursive(true);
+			treeWalk.setFilter(AndTreeFilter.create(TreeFilter.ANY_DIFF, JAVA_FILES));
+			for (DiffEntry diff : DiffEntry.scan(treeWalk)) {
+				if (diff.getChangeType() == ChangeType.ADD) {
+					update(javaFileCounts, diff.getNewPath(), 1);
+				}
+				else if (diff.getChangeType() == ChangeType.DELETE) {
+					update(javaFileCounts, diff.getOldPath(), -1);
+				}
+			}
+		}
+		return new RepositoryDirectoryIndex(otherTreeId.copy(), javaFileCounts);
+	}
+
+	private static void update(Map<String, Integer> javaFileCounts, String javaFilePath, int delta) {
+		String directory = javaFilePath;
+		while (directory.contains("/")) {
+			directory = directory.substring(0, directory.lastIndexOf("/"));
+			int count = javaFileCounts.getOrDefault(directory, 0) + delta;
+			if (count > 0) {
+				javaFileCounts.put(directory, count);
+			}
+			else {
+				javaFileCounts.remove(directory);
+			}
+		}
+	}
+
+	public ObjectId getTreeId() {
+		return treeId;
+	}
+
+	public Set<String> getDirectories() {
+		return Collections.unmodifiableSet(javaFileCounts.keySet());
+	}
+
+	public int size() {
+		return javaFileCounts.size();
+	}
+}
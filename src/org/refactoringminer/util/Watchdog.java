@@ -0,0 +1,74 @@
+package org.refactoringminer.util;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interrupts threads that exceed a time budget, using a single scheduler thread for all of them.
+ */
+public class Watchdog {
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	public Watchdog(String name) {
+		this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Starts watching the current thread, which is interrupted if the returned lease is not closed within the given time.
+	 */
+	public Lease watch(long timeout, TimeUnit unit) {
+		Lease lease = new Lease(Thread.currentThread());
+		lease.future = scheduler.schedule(lease::expire, timeout, unit);
+		return lease;
+	}
+
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	public static class Lease implements AutoCloseable {
+		private final Thread thread;
+		private ScheduledFuture<?> future;
+		private boolean closed = false;
+		private boolean expired = false;
+
+		private Lease(Thread thread) {
+			this.thread = thread;
+		}
+
+		private synchronized void expire() {
+			if (!closed) {
+				expired = true;
+				thread.interrupt();
+			}
+		}
+
+		/**
+		 * @return True if the time budget was exceeded and the thread was interrupted.
+		 */
+		public synchronized boolean isExpired() {
+			return expired;
+		}
+
+		/**
+		 * Stops watching the thread. If the time budget was exceeded, the interrupted status of the thread is cleared,
+		 * so that it does not affect the work done next by the thread.
+		 */
+		@Override
+		public void close() {
+			synchronized (this) {
+				closed = true;
+			}
+			future.cancel(false);
+			if (expired && thread == Thread.currentThread()) {
+				Thread.interrupted();
+			}
+		}
+	}
+}